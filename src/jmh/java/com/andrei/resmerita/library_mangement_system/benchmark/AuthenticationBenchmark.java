@@ -0,0 +1,72 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
+import com.andrei.resmerita.library_mangement_system.service.impl.TokenServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with the providers configured in {@link SecurityConfig}: HTTP Basic checked against
+ * the password hash every time (the previous behaviour), HTTP Basic served from the credential cache, and a Bearer token
+ * verified by its HMAC signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private AuthenticationProvider uncachedBasic;
+    private AuthenticationProvider cachedBasic;
+    private AuthenticationProvider bearer;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SecurityConfig securityConfig = new SecurityConfig();
+        UserDetailsService userDetailsService = securityConfig.userDetailsService();
+
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        uncachedBasic = daoAuthenticationProvider;
+        cachedBasic = securityConfig.authenticationProvider(userDetailsService, 1000, Duration.ofMinutes(5));
+
+        SecretKey key = securityConfig.tokenSigningKey("");
+        JwtDecoder jwtDecoder = securityConfig.jwtDecoder(key);
+        bearer = new JwtAuthenticationProvider(jwtDecoder);
+        Authentication user = uncachedBasic.authenticate(basicRequest());
+        token = new TokenServiceImpl(securityConfig.jwtEncoder(key), Duration.ofHours(1)).issueToken(user).getAccessToken();
+    }
+
+    @Benchmark
+    public Authentication basicWithoutCache() {
+        return uncachedBasic.authenticate(basicRequest());
+    }
+
+    @Benchmark
+    public Authentication basicWithCredentialCache() {
+        return cachedBasic.authenticate(basicRequest());
+    }
+
+    @Benchmark
+    public Authentication bearerToken() {
+        return bearer.authenticate(new BearerTokenAuthenticationToken(token));
+    }
+
+    private static UsernamePasswordAuthenticationToken basicRequest() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+    }
+}
@@ -0,0 +1,100 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.LibraryMangementSystemApplication;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Test data and application bootstrap shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final int BOOKS_PER_AUTHOR = 10;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Starts the whole application on a random port with SQL and request logging turned off, so the numbers are not
+     * dominated by console output.
+     */
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(LibraryMangementSystemApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN", "spring.main.banner-mode=off")
+                .run();
+    }
+
+    /**
+     * Inserts {@code bookCount} books spread over authors holding {@link #BOOKS_PER_AUTHOR} books each.
+     */
+    static void seed(ConfigurableApplicationContext context, int bookCount) {
+        AuthorService authorService = context.getBean(AuthorService.class);
+        BookService bookService = context.getBean(BookService.class);
+        List<BookDTO> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            if (i % BOOKS_PER_AUTHOR == 0) {
+                authorService.saveAuthor(authorDTO(i / BOOKS_PER_AUTHOR));
+            }
+            books.add(bookDTO(i, authorDTO(i / BOOKS_PER_AUTHOR)));
+        }
+        bookService.saveBooks(books);
+    }
+
+    static AuthorDTO authorDTO(int index) {
+        return new AuthorDTO("Author " + index, "Biography of author " + index, new HashSet<>(), null);
+    }
+
+    static BookDTO bookDTO(int index, AuthorDTO author) {
+        return new BookDTO("Title " + index, "Description of book " + index, "isbn-" + index, author);
+    }
+
+    static BookDTO bookDTO(String isbn, AuthorDTO author) {
+        return new BookDTO("Title " + isbn, "Description of book " + isbn, isbn, author);
+    }
+
+    static List<BookDTO> bookDTOs(int count) {
+        List<BookDTO> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(bookDTO(i, authorDTO(i / BOOKS_PER_AUTHOR)));
+        }
+        return books;
+    }
+
+    /**
+     * Builds {@code count} detached books with ids and a bidirectional author link, the shape the mappers see after a
+     * fetch-joined query.
+     */
+    static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        Author author = null;
+        for (int i = 0; i < count; i++) {
+            if (i % BOOKS_PER_AUTHOR == 0) {
+                author = new Author();
+                author.setId(UUID.randomUUID().toString());
+                author.setName("Author " + i / BOOKS_PER_AUTHOR);
+                author.setBio("Biography of author " + i / BOOKS_PER_AUTHOR);
+                author.setBooks(new HashSet<>());
+            }
+            Book book = new Book();
+            book.setId(UUID.randomUUID().toString());
+            book.setTitle("Title " + i);
+            book.setDescription("Description of book " + i);
+            book.setIsbn("isbn-" + i);
+            book.setAuthor(author);
+            author.getBooks().add(book);
+            books.add(book);
+        }
+        return books;
+    }
+}
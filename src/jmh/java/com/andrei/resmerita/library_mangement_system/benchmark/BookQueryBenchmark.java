@@ -0,0 +1,106 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered and sorted book queries against a large catalog, next to the old approach of loading every book and
+ * filtering in the client. The plan of each query shape is printed once per trial, so it can be checked which index
+ * serves it; point spring.datasource.url at PostgreSQL to see its plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookQueryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final String SELECT = "select b.id, b.title, a.name from book b join author a on a.id = b.author_id ";
+
+    @Param({"10000", "100000"})
+    private int bookCount;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private String authorId;
+    private Instant createdAfter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication();
+        BenchmarkFixtures.seed(context, bookCount);
+        bookService = context.getBean(BookService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("analyze");
+        authorId = jdbcTemplate.queryForObject("select cast(id as varchar) from author where name = 'Author 1'", String.class);
+        // Only the newest tenth of the catalog
+        createdAfter = jdbcTemplate.queryForObject("select created_at from book order by created_at desc offset " + bookCount / 10 + " rows fetch first 1 row only", Instant.class);
+
+        Map<String, String> shapes = Map.of(
+                "titlePrefix", "where b.title like 'Title 12%' order by b.title, b.id",
+                "isbnPrefix", "where b.isbn like 'isbn-12%' order by b.isbn, b.id",
+                "newest", "order by b.created_at desc, b.id desc",
+                "createdAfter", "where b.created_at > timestamp with time zone '" + createdAfter + "' order by b.created_at, b.id",
+                "authorByTitle", "where b.author_id = cast('" + authorId + "' as uuid) order by b.title, b.id",
+                "authorByCreatedAt", "where b.author_id = cast('" + authorId + "' as uuid) order by b.created_at, b.id");
+        shapes.forEach((name, clause) -> System.out.printf("%n%s:%n%s%n", name, jdbcTemplate.queryForObject("explain " + SELECT + clause + " fetch first " + PAGE_SIZE + " rows only", String.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> titlePrefix() {
+        return bookService.queryBooks(new BookFilterDTO(null, null, "Title 12", null, null), List.of("title"), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> isbnPrefix() {
+        return bookService.queryBooks(new BookFilterDTO(null, null, null, "isbn-12", null), List.of("isbn"), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> newest() {
+        return bookService.queryBooks(new BookFilterDTO(), List.of("-createdAt"), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> createdAfter() {
+        return bookService.queryBooks(new BookFilterDTO(null, null, null, null, createdAfter), List.of("createdAt"), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> authorByTitle() {
+        return bookService.queryBooks(new BookFilterDTO(authorId, null, null, null, null), List.of("title"), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummaryDTO> authorNameByCreatedAt() {
+        return bookService.queryBooks(new BookFilterDTO(null, "Author 1", null, null, null), List.of("createdAt"), null, PAGE_SIZE);
+    }
+
+    // What clients did before the query endpoint existed
+    @Benchmark
+    public List<BookDTO> titlePrefixInMemory() {
+        return bookService.getAllBooks().stream()
+                .filter(book -> book.getTitle().startsWith("Title 12"))
+                .sorted((first, second) -> first.getTitle().compareTo(second.getTitle()))
+                .limit(PAGE_SIZE)
+                .toList();
+    }
+}
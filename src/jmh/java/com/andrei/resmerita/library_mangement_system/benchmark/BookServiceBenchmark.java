@@ -0,0 +1,53 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls against the in-memory H2 database, with the application context wired as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"100", "1000"})
+    private int bookCount;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private AuthorDTO author;
+    private long nextIsbn;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication();
+        BenchmarkFixtures.seed(context, bookCount);
+        bookService = context.getBean(BookService.class);
+        author = BenchmarkFixtures.authorDTO(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public BookDTO saveBook() {
+        return bookService.saveBook(BenchmarkFixtures.bookDTO("bench-" + nextIsbn++, author));
+    }
+}
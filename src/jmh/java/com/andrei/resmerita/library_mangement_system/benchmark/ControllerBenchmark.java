@@ -0,0 +1,165 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request handling through the full stack: security filter chain with basic authentication, controller, validation,
+ * service, JPA and JSON serialization. One benchmark per endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    private static final int BOOK_COUNT = 1000;
+    private static final int BULK_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private AuthorDTO author;
+    private String bookId;
+    private String authorId;
+    private byte[] bookUpdate;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkFixtures.startApplication();
+        BenchmarkFixtures.seed(context, BOOK_COUNT);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .defaultRequest(get("/").with(httpBasic("user", "password")))
+                .build();
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        author = BenchmarkFixtures.authorDTO(0);
+        bookId = context.getBean(BookRepository.class).findAllByOrderByIdAsc(Limit.of(1)).get(0).getId();
+        authorId = context.getBean(AuthorRepository.class).findByName(author.getName()).orElseThrow().getId();
+        bookUpdate = objectMapper.writeValueAsBytes(context.getBean(BookRepository.class).findById(bookId).map(book -> BenchmarkFixtures.bookDTO(book.getIsbn(), author)).orElseThrow());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // A failing request would otherwise show up as a suspiciously fast one
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getBook() throws Exception {
+        return perform(get("/books/getBook/{id}", bookId));
+    }
+
+    @Benchmark
+    public MvcResult getAllBooks() throws Exception {
+        return perform(get("/books/getAllBooks"));
+    }
+
+    @Benchmark
+    public MvcResult getBooksPage() throws Exception {
+        return perform(get("/books/getBooksPage").param("size", "50"));
+    }
+
+    @Benchmark
+    public MvcResult getBookSummariesPage() throws Exception {
+        return perform(get("/books/getBookSummariesPage").param("size", "50"));
+    }
+
+    @Benchmark
+    public MvcResult streamAllBooks() throws Exception {
+        MvcResult result = perform(get("/books/streamAllBooks"));
+        return perform(asyncDispatch(result));
+    }
+
+    @Benchmark
+    public MvcResult createBook() throws Exception {
+        BookDTO book = BenchmarkFixtures.bookDTO("bench-" + nextId++, author);
+        return perform(post("/books/create").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(book)));
+    }
+
+    @Benchmark
+    public MvcResult createBooksInBulk() throws Exception {
+        List<BookDTO> books = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            books.add(BenchmarkFixtures.bookDTO("bench-" + nextId++, author));
+        }
+        return perform(post("/books/bulk").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(books)));
+    }
+
+    @Benchmark
+    public MvcResult updateBook() throws Exception {
+        return perform(put("/books/update/{id}", bookId).contentType(MediaType.APPLICATION_JSON).content(bookUpdate));
+    }
+
+    @Benchmark
+    public MvcResult createAndDeleteBook() throws Exception {
+        BookDTO book = BenchmarkFixtures.bookDTO("bench-" + nextId++, author);
+        perform(post("/books/create").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(book)));
+        String id = context.getBean(BookRepository.class).findByIsbn(book.getIsbn()).orElseThrow().getId();
+        return perform(delete("/books/delete/{id}", id));
+    }
+
+    @Benchmark
+    public MvcResult getAllAuthors() throws Exception {
+        return perform(get("/authors/getAll"));
+    }
+
+    @Benchmark
+    public MvcResult getAuthorById() throws Exception {
+        return perform(get("/authors/getAuthorById/{id}", authorId));
+    }
+
+    @Benchmark
+    public MvcResult getAuthorDetails() throws Exception {
+        return perform(get("/authors/getAuthorDetails/{id}", authorId).param("booksSize", "20"));
+    }
+
+    @Benchmark
+    public MvcResult createAuthor() throws Exception {
+        AuthorDTO newAuthor = new AuthorDTO("Bench author " + nextId++, "Biography", new HashSet<>(), null);
+        return perform(post("/authors/create").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(newAuthor)));
+    }
+
+    @Benchmark
+    public MvcResult updateAuthor() throws Exception {
+        return perform(put("/authors/update/{id}", authorId).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(author)));
+    }
+
+    @Benchmark
+    public MvcResult createAndDeleteAuthor() throws Exception {
+        AuthorDTO newAuthor = new AuthorDTO("Bench author " + nextId++, "Biography", new HashSet<>(), null);
+        perform(post("/authors/create").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(newAuthor)));
+        String id = context.getBean(AuthorRepository.class).findByName(newAuthor.getName()).orElseThrow().getId();
+        return perform(delete("/authors/delete/{id}", id));
+    }
+}
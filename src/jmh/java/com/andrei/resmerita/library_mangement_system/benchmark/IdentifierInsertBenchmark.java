@@ -0,0 +1,126 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.model.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of book rows, with an author foreign key and the (author_id, id) index, for each id scheme: random
+ * UUIDs and time-ordered UUIDs as strings, time-ordered UUIDs in a native UUID column (the current mapping), and a pooled
+ * sequence as the baseline. Rows go through plain JDBC in batches of hibernate.jdbc.batch_size so only the keys differ.
+ * Runs against in-memory H2 by default; point {@code -Dbenchmark.jdbc.url} (with {@code benchmark.jdbc.username} and
+ * {@code benchmark.jdbc.password}) at PostgreSQL to see the effect on a disk-based B-tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentifierInsertBenchmark {
+
+    private static final int AUTHORS = 100;
+    private static final int PRELOADED_BOOKS = 100_000;
+    private static final int BATCH_SIZE = 100;
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    @Param({"uuid4-varchar", "uuid7-varchar", "uuid7-uuid", "sequence-bigint"})
+    private String scheme;
+
+    private Connection connection;
+    private PreparedStatement insertBook;
+    private PreparedStatement nextSequenceValue;
+    private Object[] authorIds;
+    private long sequenceValue;
+    private long sequenceLimit;
+    private int nextAuthor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:identifiers;DB_CLOSE_DELAY=-1"), System.getProperty("benchmark.jdbc.username", "sa"), System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+        String type = switch (scheme) {
+            case "uuid7-uuid" -> "uuid";
+            case "sequence-bigint" -> "bigint";
+            default -> "varchar(36)";
+        };
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_book");
+            statement.execute("drop table if exists bench_author");
+            statement.execute("drop sequence if exists bench_id_seq");
+            statement.execute("create table bench_author (id " + type + " primary key, name varchar(255))");
+            statement.execute("create table bench_book (id " + type + " primary key, title varchar(255), author_id " + type + " not null references bench_author (id))");
+            statement.execute("create index idx_bench_book_author_id on bench_book (author_id, id)");
+            statement.execute("create sequence bench_id_seq increment by " + SEQUENCE_INCREMENT);
+        }
+        nextSequenceValue = connection.prepareStatement(postgres ? "select nextval('bench_id_seq')" : "select next value for bench_id_seq");
+
+        authorIds = new Object[AUTHORS];
+        try (PreparedStatement insertAuthor = connection.prepareStatement("insert into bench_author (id, name) values (?, ?)")) {
+            for (int i = 0; i < AUTHORS; i++) {
+                authorIds[i] = nextId();
+                insertAuthor.setObject(1, authorIds[i]);
+                insertAuthor.setString(2, "Author " + i);
+                insertAuthor.addBatch();
+            }
+            insertAuthor.executeBatch();
+        }
+        insertBook = connection.prepareStatement("insert into bench_book (id, title, author_id) values (?, ?, ?)");
+        for (int i = 0; i < PRELOADED_BOOKS / BATCH_SIZE; i++) {
+            insertBooks();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet count = statement.executeQuery("select count(*) from bench_book")) {
+            count.next();
+            System.out.printf("%n%s: %d books%n", scheme, count.getLong(1));
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBooks() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insertBook.setObject(1, nextId());
+            insertBook.setString(2, "Title");
+            insertBook.setObject(3, authorIds[nextAuthor++ % AUTHORS]);
+            insertBook.addBatch();
+        }
+        int[] counts = insertBook.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    private Object nextId() throws SQLException {
+        return switch (scheme) {
+            case "uuid4-varchar" -> UUID.randomUUID().toString();
+            case "uuid7-varchar" -> TimeOrderedIdGenerator.next().toString();
+            case "uuid7-uuid" -> TimeOrderedIdGenerator.next();
+            default -> nextSequenceId();
+        };
+    }
+
+    // Pooled like Hibernate's default sequence optimizer: one round trip per SEQUENCE_INCREMENT ids
+    private long nextSequenceId() throws SQLException {
+        if (sequenceValue == sequenceLimit) {
+            try (ResultSet resultSet = nextSequenceValue.executeQuery()) {
+                resultSet.next();
+                sequenceLimit = resultSet.getLong(1);
+            }
+            sequenceValue = sequenceLimit - SEQUENCE_INCREMENT;
+        }
+        return ++sequenceValue;
+    }
+}
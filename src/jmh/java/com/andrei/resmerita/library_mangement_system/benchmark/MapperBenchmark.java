@@ -0,0 +1,67 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.mapper.AuthorMapper;
+import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
+import com.andrei.resmerita.library_mangement_system.mapper.CycleAvoidingMappingContext;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final BookMapper bookMapper = BookMapper.INSTANCE;
+    private final AuthorMapper authorMapper = AuthorMapper.INSTANCE;
+
+    private List<Book> books;
+    private Book book;
+    private Author author;
+    private BookDTO bookDTO;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkFixtures.books(size);
+        book = books.get(0);
+        author = book.getAuthor();
+        bookDTO = bookMapper.toBookDTO(book);
+    }
+
+    @Benchmark
+    public BookDTO toBookDTO() {
+        return bookMapper.toBookDTO(book);
+    }
+
+    @Benchmark
+    public List<BookDTO> toBookDTOs() {
+        return bookMapper.toBookDTOs(books, new CycleAvoidingMappingContext());
+    }
+
+    @Benchmark
+    public List<BookSummaryDTO> toBookSummaryDTOs() {
+        return bookMapper.toBookSummaryDTOs(books);
+    }
+
+    @Benchmark
+    public Book toBook() {
+        return bookMapper.toBook(bookDTO);
+    }
+
+    @Benchmark
+    public AuthorDTO toAuthorDTO() {
+        return authorMapper.toAuthorDTO(author);
+    }
+}
@@ -0,0 +1,107 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.service.impl.BookSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Query latency of the search index over a synthetic catalog. Sample mode reports percentiles, so the p99 can be read
+ * straight from the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SearchBenchmark {
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private BookSearchIndex bookSearchIndex;
+    private String[] vocabulary;
+    private String[] twoWordQueries;
+    private String[] prefixQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        bookSearchIndex = new BookSearchIndex(mock(BookRepository.class), mock(EntityManager.class), mock(PlatformTransactionManager.class));
+        Author author = null;
+        for (int i = 0; i < catalogSize; i++) {
+            if (i % BenchmarkFixtures.BOOKS_PER_AUTHOR == 0) {
+                author = new Author();
+                author.setId("author-" + i);
+                author.setName(pick(random) + " " + pick(random));
+            }
+            Book book = new Book();
+            book.setId("book-" + i);
+            book.setTitle(phrase(random, 4));
+            book.setDescription(phrase(random, 20));
+            book.setIsbn("isbn-" + i);
+            book.setAuthor(author);
+            bookSearchIndex.index(book);
+        }
+
+        twoWordQueries = new String[QUERY_COUNT];
+        prefixQueries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            twoWordQueries[i] = pick(random) + " " + pick(random);
+            String word = pick(random);
+            prefixQueries[i] = pick(random) + " " + word.substring(0, Math.min(3, word.length()));
+        }
+    }
+
+    @Benchmark
+    public List<BookSummaryDTO> searchTwoWords() {
+        return bookSearchIndex.search(twoWordQueries[next++ & (QUERY_COUNT - 1)], 0, 20);
+    }
+
+    @Benchmark
+    public List<BookSummaryDTO> searchWithPrefix() {
+        return bookSearchIndex.search(prefixQueries[next++ & (QUERY_COUNT - 1)], 0, 20);
+    }
+
+    // Skewed towards the start of the vocabulary so that some words are common and most are rare, as in real titles
+    private String pick(SplittableRandom random) {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return vocabulary[(int) (skewed * VOCABULARY_SIZE)];
+    }
+
+    private String phrase(SplittableRandom random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            phrase.append(i == 0 ? "" : " ").append(pick(random));
+        }
+        return phrase.toString();
+    }
+
+    private static String word(SplittableRandom random) {
+        char[] letters = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,75 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of book lists in every format the controllers can negotiate. Payload sizes, plain and gzipped, are
+ * printed once per trial since JMH only reports times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<BookDTO>> BOOK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<BookDTO> books;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same builder defaults Spring MVC uses for its JSON, CBOR and Smile message converters
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        books = BenchmarkFixtures.bookDTOs(size);
+        payload = objectMapper.writeValueAsBytes(books);
+        System.out.printf("%n%s, %d books: %d bytes, %d bytes gzipped%n", format, size, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws IOException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzipBooks() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(books));
+    }
+
+    @Benchmark
+    public List<BookDTO> deserializeBooks() throws IOException {
+        return objectMapper.readValue(payload, BOOK_LIST);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,27 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Stands in for the network round trip to a database server, which the in-memory H2 database does not have. Hibernate
+ * calls the inspector while preparing every statement, so the sleep happens with a pooled connection held, just like
+ * waiting on a remote database.
+ */
+public class SimulatedLatencyStatementInspector implements StatementInspector {
+
+    static final String LATENCY_PROPERTY = "library.loadtest.statement-latency-ms";
+
+    private final long latencyMillis = Long.getLong(LATENCY_PROPERTY, 0);
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,150 @@
+package com.andrei.resmerita.library_mangement_system.benchmark;
+
+import com.andrei.resmerita.library_mangement_system.LibraryMangementSystemApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing request handling on Tomcat's platform thread pool with the virtual-threads
+ * profile. Every client sends its next request as soon as the previous one completes, and each SQL statement waits for
+ * a simulated database round trip, so throughput is bounded by how many requests can block at the same time.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="--clients=1000"}. Options, with their
+ * defaults: {@code --mode=both} (or {@code platform}, {@code virtual}), {@code --clients=1000}, {@code --seconds=20},
+ * {@code --latency-ms=20}, {@code --pool-size=400}, {@code --path=/books/getBooksPage?size=10}. The virtual mode needs
+ * JDK 21 or later.
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String mode = options.getOrDefault("mode", "both");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "20")));
+        String latency = options.getOrDefault("latency-ms", "20");
+        String poolSize = options.getOrDefault("pool-size", "400");
+        String path = options.getOrDefault("path", "/books/getBooksPage?size=10");
+
+        System.setProperty(SimulatedLatencyStatementInspector.LATENCY_PROPERTY, latency);
+        System.out.printf("%-9s %8s %10s %10s %10s %8s%n", "mode", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+        for (String threads : mode.equals("both") ? List.of("platform", "virtual") : List.of(mode)) {
+            if (threads.equals("virtual") && Runtime.version().feature() < 21) {
+                System.out.printf("%-9s skipped, virtual threads need JDK 21 or later (running %s)%n", threads, Runtime.version());
+                continue;
+            }
+            try (ConfigurableApplicationContext context = start(threads.equals("virtual"), poolSize)) {
+                BenchmarkFixtures.seed(context, 1000);
+                URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+                run(uri, clients, WARMUP);
+                Result result = run(uri, clients, duration);
+                System.out.printf("%-9s %8d %10.0f %10.1f %10.1f %8d%n", threads, clients, result.throughput(), result.percentile(0.50), result.percentile(0.99), result.errors());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, String poolSize) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + SimulatedLatencyStatementInspector.class.getName()));
+        if (virtualThreads) {
+            arguments.add("--spring.profiles.active=virtual-threads");
+        }
+        return new SpringApplicationBuilder(LibraryMangementSystemApplication.class)
+                // Basic authentication hashes the password with BCrypt on every request, which would turn this into a CPU
+                // benchmark. A plain UserDetailsService also keeps Spring Security from upgrading the password to BCrypt.
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (!(bean instanceof UserDetailsService)) {
+                            return bean;
+                        }
+                        UserDetailsService plainTextUsers = username -> User.withUsername(username).password("{noop}password").roles("USER").build();
+                        return plainTextUsers;
+                    }
+                }))
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private static Result run(URI uri, int clients, Duration duration) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", AUTHORIZATION).timeout(Duration.ofSeconds(30)).GET().build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            loops.add(loop(httpClient, request, deadline, latencies, errors));
+        }
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(latencies, errors.get(), latencies.size() / seconds);
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient httpClient, HttpRequest request, long deadline, List<Long> latencies, AtomicLong errors) {
+        long sent = System.nanoTime();
+        if (sent >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure == null && response.statusCode() == 200) {
+                        latencies.add(System.nanoTime() - sent);
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(httpClient, request, deadline, latencies, errors));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        return options;
+    }
+
+    private record Result(List<Long> latencies, long errors, double throughput) {
+
+        double percentile(double percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.min(sorted.size() - 1, Math.round(percentile * sorted.size()))) / 1e6;
+        }
+    }
+}
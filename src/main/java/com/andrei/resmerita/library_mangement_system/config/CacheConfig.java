@@ -0,0 +1,16 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the service-level caches. The store itself (Caffeine, bounded by size and TTL) is configured through the
+ * {@code spring.cache.*} properties and can be switched off with {@code spring.cache.type=none}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS_CACHE = "books";
+    public static final String AUTHORS_CACHE = "authors";
+}
@@ -0,0 +1,43 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot stops auto-configuring the JDBC DataSource as soon as an R2DBC ConnectionFactory exists, so it is declared
+ * here from the usual spring.datasource properties for JPA to keep working next to the reactive read API.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * When the pool hands out connections with auto-commit already off, Hibernate can skip switching it at the start of
+     * every transaction and only checks a connection out once the transaction runs its first statement, so transactions
+     * served entirely from the caches never touch the pool. Only set for such a pool, since Hibernate would otherwise run
+     * every statement in auto-commit mode. Spring's default handling mode would still take a connection up front for
+     * read-only transactions, just to flag it read-only; those rely on Hibernate's read-only session instead.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer delayedConnectionAcquisitionCustomizer(HikariDataSource dataSource) {
+        return hibernateProperties -> {
+            if (!dataSource.isAutoCommit()) {
+                hibernateProperties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true);
+                hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING, PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            }
+        };
+    }
+}
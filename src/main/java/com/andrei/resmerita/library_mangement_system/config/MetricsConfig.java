@@ -0,0 +1,108 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.micrometer.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Hot-path metrics on top of the ones Spring Boot already records for every endpoint ({@code http.server.requests}) and
+ * repository method ({@code spring.data.repository.invocations}):
+ * <ul>
+ *     <li>{@code library.service}: every method of the services annotated with {@code @Observed}, also traced as a span</li>
+ *     <li>{@code library.mapper}: every MapStruct mapper call</li>
+ *     <li>{@code library.serialization}: writing JSON response bodies</li>
+ *     <li>{@code library.sql.statements}: SQL statements per request, see {@link RequestMetricsFilter}</li>
+ * </ul>
+ * All of them are scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public MapperMetricsAspect mapperMetricsAspect(MeterRegistry meterRegistry) {
+        return new MapperMetricsAspect(meterRegistry);
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry meterRegistry, Tracer tracer) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry, tracer));
+        // Right after the server observation filter, so the request span is current
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Aspect
+    static class MapperMetricsAspect {
+
+        private final MeterRegistry meterRegistry;
+
+        MapperMetricsAspect(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Around("execution(* com.andrei.resmerita.library_mangement_system.mapper.*Mapper.*(..))")
+        public Object timeMapping(ProceedingJoinPoint joinPoint) throws Throwable {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                sample.stop(Timer.builder("library.mapper")
+                        .description("Time spent mapping between entities and DTOs")
+                        .tag("mapper", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                        .tag("method", joinPoint.getSignature().getName())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    static class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+        private final MeterRegistry meterRegistry;
+        private final Timer timer;
+
+        TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+            super(objectMapper);
+            this.meterRegistry = meterRegistry;
+            this.timer = Timer.builder("library.serialization")
+                    .description("Time spent writing response bodies")
+                    .tag("format", "json")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                sample.stop(timer);
+            }
+        }
+    }
+}
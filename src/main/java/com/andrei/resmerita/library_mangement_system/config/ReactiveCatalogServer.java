@@ -0,0 +1,73 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.andrei.resmerita.library_mangement_system.service.ReactiveCatalogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Serves the reactive read API from its own Netty server on library.reactive.server.port, so those requests are handled
+ * by a few event-loop threads instead of Tomcat's request threads. The server runs in a separate reactive application
+ * context that is handed only the beans it needs; as a child of this context it would also pick up the MVC controller
+ * advice. Like the actuator's separate management server, it only starts next to a running embedded server, so tests
+ * against a mock servlet environment do not open a port.
+ */
+@Component
+public class ReactiveCatalogServer implements SmartLifecycle {
+
+    private final ApplicationContext applicationContext;
+    private volatile AnnotationConfigReactiveWebServerApplicationContext reactiveContext;
+
+    @Autowired
+    public ReactiveCatalogServer(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void start() {
+        if (!(applicationContext instanceof WebServerApplicationContext)) {
+            return;
+        }
+        AnnotationConfigReactiveWebServerApplicationContext context = new AnnotationConfigReactiveWebServerApplicationContext();
+        context.setId(applicationContext.getId() + "-reactive");
+        context.setClassLoader(applicationContext.getClassLoader());
+        context.getEnvironment().merge((ConfigurableEnvironment) applicationContext.getEnvironment());
+        context.registerBean(ReactiveCatalogService.class, () -> applicationContext.getBean(ReactiveCatalogService.class));
+        context.registerBean(AuthenticationProvider.class, () -> applicationContext.getBean(AuthenticationProvider.class));
+        context.registerBean(SecretKey.class, () -> applicationContext.getBean(SecretKey.class));
+        context.registerBean(ObjectMapper.class, () -> applicationContext.getBean(ObjectMapper.class));
+        context.register(ReactiveCatalogWebConfig.class);
+        context.refresh();
+        reactiveContext = context;
+    }
+
+    @Override
+    public void stop() {
+        AnnotationConfigReactiveWebServerApplicationContext context = reactiveContext;
+        if (context != null) {
+            reactiveContext = null;
+            context.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reactiveContext != null;
+    }
+
+    /**
+     * Port the reactive server listens on, or -1 while it is not running.
+     */
+    public int getPort() {
+        AnnotationConfigReactiveWebServerApplicationContext context = reactiveContext;
+        return context == null ? -1 : context.getWebServer().getPort();
+    }
+}
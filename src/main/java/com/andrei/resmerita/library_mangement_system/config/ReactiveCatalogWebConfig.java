@@ -0,0 +1,69 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.andrei.resmerita.library_mangement_system.controller.ReactiveCatalogController;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.error.ErrorWebFluxAutoConfiguration;
+import org.springframework.boot.web.reactive.server.ConfigurableReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Configuration of the reactive application context started by {@link ReactiveCatalogServer}. Only the WebFlux pieces the
+ * reactive read API needs are auto-configured. The condition keeps the servlet application from picking this class and
+ * the controller up through component scanning.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ReactiveWebServerFactoryAutoConfiguration.class, HttpHandlerAutoConfiguration.class,
+        CodecsAutoConfiguration.class, WebFluxAutoConfiguration.class, ErrorWebFluxAutoConfiguration.class})
+@EnableWebFluxSecurity
+@Import(ReactiveCatalogController.class)
+public class ReactiveCatalogWebConfig {
+
+    /**
+     * The environment is shared with the servlet application, so server.port still names the Tomcat port.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableReactiveWebServerFactory> reactiveServerPortCustomizer(@Value("${library.reactive.server.port:8081}") int port) {
+        return factory -> factory.setPort(port);
+    }
+
+    /**
+     * Accepts the same HTTP Basic credentials and bearer tokens as the servlet API. Credential checks go through the cached
+     * provider on a bounded elastic thread, so a BCrypt verification never runs on an event loop.
+     */
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityWebFilterChain(ServerHttpSecurity http, AuthenticationProvider authenticationProvider, SecretKey tokenSigningKey) {
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(tokenSigningKey).macAlgorithm(MacAlgorithm.HS256).build();
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange.anyExchange().authenticated())
+                .httpBasic(httpBasic -> httpBasic.authenticationManager(new ReactiveAuthenticationManagerAdapter(new ProviderManager(authenticationProvider))))
+                .oauth2ResourceServer(resourceServer -> resourceServer.jwt(jwt -> jwt
+                        .jwtDecoder(jwtDecoder)
+                        .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(SecurityConfig.jwtAuthenticationConverter()))))
+                .build();
+    }
+}
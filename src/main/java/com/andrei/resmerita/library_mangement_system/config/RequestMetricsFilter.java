@@ -0,0 +1,55 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Returns the trace id of every request in the {@code X-Trace-Id} header, so a client report can be matched with the log
+ * lines and metric exemplars of that request, and records how many SQL statements the request ran.
+ */
+class RequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    RequestMetricsFilter(MeterRegistry meterRegistry, Tracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.currentSpan();
+        if (span != null && !span.context().traceId().isEmpty()) {
+            response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+        }
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DistributionSummary.builder("library.sql.statements")
+                    .description("SQL statements prepared per request")
+                    .baseUnit("statements")
+                    .tag("uri", uri(request))
+                    .register(meterRegistry)
+                    .record(SqlStatementCounter.stop());
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,47 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Inspects every SQL statement Hibernate prepares: it is counted for the per-request {@code library.sql.statements} metric
+ * and a random sample is logged to the {@code library.sql} logger, which logback-spring.xml writes through an asynchronous
+ * appender so request threads never wait on the console. A statement inspector configured explicitly through
+ * {@code spring.jpa.properties} takes precedence.
+ */
+@Configuration
+public class SqlLoggingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(@Value("${library.sql-log.sample-rate:0}") double sampleRate) {
+        return hibernateProperties -> hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector(sampleRate));
+    }
+
+    static class SqlStatementInspector implements StatementInspector {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger("library.sql");
+
+        private final double sampleRate;
+
+        SqlStatementInspector(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            SqlStatementCounter.increment();
+            if (sampleRate > 0 && LOGGER.isInfoEnabled() && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                LOGGER.info(sql);
+            }
+            return sql;
+        }
+    }
+}
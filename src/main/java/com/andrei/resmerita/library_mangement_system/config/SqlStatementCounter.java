@@ -0,0 +1,30 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+/**
+ * Counts the SQL statements prepared on the current thread between {@link #start()} and {@link #stop()}. Statements run on
+ * other threads, such as the async work of {@code /books/streamAllBooks}, are not attributed to the request.
+ */
+final class SqlStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
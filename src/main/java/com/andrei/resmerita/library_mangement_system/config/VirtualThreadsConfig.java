@@ -0,0 +1,29 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot only switches to virtual threads on Java 21 or later and silently keeps the platform thread pools on older
+ * runtimes. The virtual-threads profile also lifts the request thread cap and sizes the connection pool for it, so running
+ * it without virtual threads would leave Tomcat with a capped pool that no longer matches those settings. Startup fails
+ * instead of running in a mode nobody asked for.
+ */
+@Configuration
+@ConditionalOnProperty("spring.threads.virtual.enabled")
+public class VirtualThreadsConfig {
+
+    static final int MINIMUM_JAVA_VERSION = 21;
+
+    public VirtualThreadsConfig() {
+        requireVirtualThreadSupport(Runtime.version().feature());
+    }
+
+    static void requireVirtualThreadSupport(int javaVersion) {
+        if (javaVersion < MINIMUM_JAVA_VERSION) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java " + MINIMUM_JAVA_VERSION
+                    + " or later but the application runs on Java " + javaVersion
+                    + ", start it on a newer runtime or without the virtual-threads profile");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.dto.TokenDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
+import com.andrei.resmerita.library_mangement_system.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Authentication REST APIs for Library Management System", description = "REST APIs in Library Management System to exchange HTTP Basic credentials for a signed Bearer token")
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Operation(summary = "Issue Token", description = "REST API to issue a signed Bearer token for the authenticated user, to be sent in the Authorization header instead of the password until it expires")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "401", description = "HTTP Status Unauthorized"), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping("/token")
+    public ResponseEntity<TokenDTO> issueToken(Authentication authentication) {
+        return ResponseEntity.ok(tokenService.issueToken(authentication));
+    }
+}
@@ -1,8 +1,16 @@
 package com.andrei.resmerita.library_mangement_system.controller;
 
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
 import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
 import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,12 +18,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @Tag(name = "CRUD REST APIs for Authors in Library Management System", description = "CRUD REST APIs in Library Management System to CREATE, UPDATE, FETCH AND DELETE author details")
@@ -24,9 +42,18 @@ import java.util.List;
 @Validated
 public class AuthorController {
 
+    // One request is one transaction, so its size is bounded
+    private static final int MAX_BULK_AUTHORS = 1000;
+
     @Autowired
     private AuthorService authorService;
 
+    @Autowired
+    private WriteBehindService writeBehindService;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
     @Operation(summary = "Create Author", description = "REST API to create new Author inside Library Management System")
     @ApiResponses({@ApiResponse(responseCode = "201", description = "HTTP Status CREATED"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @PostMapping("/create")
@@ -35,11 +62,35 @@ public class AuthorController {
         return new ResponseEntity<>(createdAuthor, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Update Author", description = "REST API to update Author inside Library Management System")
+    @Operation(summary = "Create Author Asynchronously", description = "REST API to accept a new Author inside Library Management System for asynchronous creation, selected with the Prefer: respond-async header. The Author is written together with other queued creations shortly after; poll the returned Location for the outcome")
+    @ApiResponses({@ApiResponse(responseCode = "202", description = "HTTP Status ACCEPTED"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "429", description = "HTTP Status Too Many Requests", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping(value = "/create", headers = "Prefer=" + BookController.RESPOND_ASYNC)
+    public ResponseEntity<WriteOperationDTO> addAuthorAsync(@Valid @RequestBody AuthorDTO authorDTO) {
+        WriteOperationDTO operation = writeBehindService.submitAuthor(authorDTO);
+        return ResponseEntity.accepted().location(URI.create("/authors/getWriteOperation/" + operation.getId())).header(BookController.PREFERENCE_APPLIED, BookController.RESPOND_ASYNC).body(operation);
+    }
+
+    @Operation(summary = "Fetch Author Write Operation", description = "REST API to fetch the state of an asynchronous Author creation inside Library Management System. Operations are kept for a limited time after they are accepted")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getWriteOperation/{id}")
+    public ResponseEntity<WriteOperationDTO> getWriteOperation(@PathVariable String id) {
+        WriteOperationDTO operation = writeBehindService.getOperation(id, WriteOperationDTO.Type.AUTHOR);
+        return new ResponseEntity<>(operation, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Create Authors In Bulk", description = "REST API to create many Authors with their Books inside Library Management System in a single transaction. Books whose ISBN already exists keep their current Author and are left out of the response")
+    @ApiResponses({@ApiResponse(responseCode = "201", description = "HTTP Status CREATED"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "409", description = "HTTP Status Conflict", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping("/bulk")
+    public ResponseEntity<List<AuthorDTO>> addAuthors(@RequestBody @Size(max = MAX_BULK_AUTHORS) List<@Valid AuthorDTO> authorDTOs) {
+        List<AuthorDTO> createdAuthors = authorService.saveAuthors(authorDTOs);
+        return new ResponseEntity<>(createdAuthors, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Update Author", description = "REST API to update Author inside Library Management System. Send the ETag of the fetched Author in If-Match to reject the update when the Author was modified in the meantime")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "412", description = "HTTP Status Precondition Failed", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @PutMapping("/update/{id}")
-    public ResponseEntity<AuthorDTO> updateAuthor(@PathVariable String id, @Valid @RequestBody AuthorDTO authorDTO) {
-        AuthorDTO updatedAuthor = authorService.updateAuthor(id, authorDTO);
+    public ResponseEntity<AuthorDTO> updateAuthor(@PathVariable String id, @Valid @RequestBody AuthorDTO authorDTO, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        AuthorDTO updatedAuthor = authorService.updateAuthor(id, authorDTO, ifMatch);
         return new ResponseEntity<>(updatedAuthor, HttpStatus.OK);
     }
 
@@ -51,19 +102,49 @@ public class AuthorController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-    @Operation(summary = "Fetch All Authors", description = "REST API to fetch all Authors inside Library Management System")
+    @Operation(summary = "Fetch All Authors", description = "REST API to fetch all Authors with their book count inside Library Management System. Their Books are only listed with includeBooks=true")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @GetMapping("/getAll")
-    public ResponseEntity<List<AuthorDTO>> getAllAuthors() {
-        List<AuthorDTO> authors = authorService.getAllAuthors();
+    public ResponseEntity<List<AuthorDTO>> getAllAuthors(@RequestParam(defaultValue = "false") boolean includeBooks) {
+        List<AuthorDTO> authors = authorService.getAllAuthors(includeBooks);
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
 
-    @Operation(summary = "Fetch Author By Id", description = "REST API to fetch an Author by Id inside Library Management System")
-    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
-    @GetMapping("/getAuthorById/{id}")
-    public ResponseEntity<AuthorDTO> getAuthorById(@PathVariable String id) {
-        AuthorDTO author = authorService.getAuthorById(id);
+    @Operation(summary = "Fetch Authors By Ids", description = "REST API to fetch many Authors by Id with their book count inside Library Management System in one request, up to 1000 ids. Authors come back in the order their ids were sent; ids that match no Author are listed in missingIds instead of failing the request")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping("/batch")
+    public ResponseEntity<BatchDTO<AuthorDTO>> getAuthorsByIds(@RequestBody @Size(max = BookController.MAX_BATCH_IDS) List<@NotBlank String> ids) {
+        BatchDTO<AuthorDTO> authors = authorService.getAuthorsByIds(ids);
+        return new ResponseEntity<>(authors, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch Author By Id", description = "REST API to fetch an Author by Id with their book count inside Library Management System. Their Books are only listed with includeBooks=true. Responses carry an ETag and Last-Modified; conditional requests with If-None-Match or If-Modified-Since get 304 Not Modified while the Author is unchanged")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "304", description = "HTTP Status Not Modified"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/getAuthorById/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookController.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<AuthorDTO> getAuthorById(@PathVariable String id, @RequestParam(defaultValue = "false") boolean includeBooks, NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        VersionedDTO<AuthorDTO> author = authorService.getAuthorById(id, includeBooks);
+        // Answer 304 before the author is serialized; a cached author is not mapped again either
+        VersionDTO version = author.getVersion();
+        MediaType mediaType = BookController.negotiateMediaType(contentNegotiationManager, webRequest);
+        if (webRequest.checkNotModified(BookController.entityTag(version, mediaType), version.getLastModified().toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT).body(author.getContent());
+    }
+
+    @Operation(summary = "Fetch Author Details By Id", description = "REST API to fetch an Author by Id with a book count and one page of book summaries inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getAuthorDetails/{id}")
+    public ResponseEntity<AuthorDetailDTO> getAuthorDetails(@PathVariable String id, @RequestParam(required = false) String booksPageToken, @RequestParam(defaultValue = "20") @Min(1) @Max(500) int booksSize) {
+        AuthorDetailDTO author = authorService.getAuthorDetails(id, booksPageToken, booksSize);
         return new ResponseEntity<>(author, HttpStatus.OK);
     }
+
+    @Operation(summary = "Fetch Author Books", description = "REST API to fetch one keyset-paginated page of the Book summaries of an Author inside Library Management System, ordered by id. Pass the returned nextPageToken to get the following page")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getAuthorBooks/{id}")
+    public ResponseEntity<CursorPageDTO<BookSummaryDTO>> getAuthorBooks(@PathVariable String id, @RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CursorPageDTO<BookSummaryDTO> page = authorService.getAuthorBooks(id, pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
 }
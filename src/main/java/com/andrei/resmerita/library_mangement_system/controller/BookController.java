@@ -1,8 +1,20 @@
 package com.andrei.resmerita.library_mangement_system.controller;
 
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
 import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
 import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,12 +22,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
 @Tag(name = "CRUD REST APIs for Books in Library Management System", description = "CRUD REST APIs in Library Management System to CREATE, UPDATE, FETCH AND DELETE book details")
@@ -24,9 +54,31 @@ import java.util.List;
 @Validated
 public class BookController {
 
+    private static final int NDJSON_CHUNK_SIZE = 1000;
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // RFC 7240 preference that asks for a create to be queued instead of written before the response
+    static final String RESPOND_ASYNC = "respond-async";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    // Ids accepted by one multi-get, looked up in a couple of IN queries
+    static final int MAX_BATCH_IDS = 1000;
+    // Formats every book and author representation can be negotiated in; JSON is the default
+    private static final List<MediaType> BODY_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, MediaType.parseMediaType(APPLICATION_SMILE_VALUE));
+
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private WriteBehindService writeBehindService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HttpMessageConverters httpMessageConverters;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
     @Operation(summary = "Create Book", description = "REST API to create new Book inside Library Management System")
     @ApiResponses({@ApiResponse(responseCode = "201", description = "HTTP Status CREATED"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @PostMapping("/create")
@@ -35,11 +87,57 @@ public class BookController {
         return new ResponseEntity<>(createdBook, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Update Book", description = "REST API to update Book inside Library Management System")
+    @Operation(summary = "Create Book Asynchronously", description = "REST API to accept a new Book inside Library Management System for asynchronous creation, selected with the Prefer: respond-async header. The Book is written together with other queued creations shortly after; poll the returned Location for the outcome")
+    @ApiResponses({@ApiResponse(responseCode = "202", description = "HTTP Status ACCEPTED"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "429", description = "HTTP Status Too Many Requests", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping(value = "/create", headers = "Prefer=" + RESPOND_ASYNC)
+    public ResponseEntity<WriteOperationDTO> addBookAsync(@Valid @RequestBody BookDTO bookDTO) {
+        WriteOperationDTO operation = writeBehindService.submitBook(bookDTO);
+        return ResponseEntity.accepted().location(URI.create("/books/getWriteOperation/" + operation.getId())).header(PREFERENCE_APPLIED, RESPOND_ASYNC).body(operation);
+    }
+
+    @Operation(summary = "Fetch Book Write Operation", description = "REST API to fetch the state of an asynchronous Book creation inside Library Management System. Operations are kept for a limited time after they are accepted")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getWriteOperation/{id}")
+    public ResponseEntity<WriteOperationDTO> getWriteOperation(@PathVariable String id) {
+        WriteOperationDTO operation = writeBehindService.getOperation(id, WriteOperationDTO.Type.BOOK);
+        return new ResponseEntity<>(operation, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Create Books In Bulk", description = "REST API to create many Books inside Library Management System from a JSON array, reporting the outcome of every row")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkResultDTO>> addBooks(@RequestBody List<BookDTO> bookDTOs) {
+        List<BulkResultDTO> results = bookService.saveBooks(bookDTOs);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Create Books In Bulk From NDJSON", description = "REST API to create many Books inside Library Management System from a newline-delimited JSON body that is read and imported chunk by chunk")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkResultDTO>> addBooksFromNdjson(InputStream body) throws IOException {
+        List<BulkResultDTO> results = new ArrayList<>();
+        try (MappingIterator<BookDTO> rows = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+            List<BookDTO> chunk = new ArrayList<>(NDJSON_CHUNK_SIZE);
+            while (rows.hasNextValue()) {
+                chunk.add(rows.nextValue());
+                if (chunk.size() == NDJSON_CHUNK_SIZE || !rows.hasNextValue()) {
+                    int offset = results.size();
+                    bookService.saveBooks(chunk).forEach(result -> {
+                        result.setIndex(result.getIndex() + offset);
+                        results.add(result);
+                    });
+                    chunk = new ArrayList<>(NDJSON_CHUNK_SIZE);
+                }
+            }
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Update Book", description = "REST API to update Book inside Library Management System. Send the ETag of the fetched Book in If-Match to reject the update when the Book was modified in the meantime")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "412", description = "HTTP Status Precondition Failed", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @PutMapping("/update/{id}")
-    public ResponseEntity<BookDTO> updateBook(@PathVariable String id, @Valid @RequestBody BookDTO bookDTO) {
-        BookDTO updatedBook = bookService.updateBook(id, bookDTO);
+    public ResponseEntity<BookDTO> updateBook(@PathVariable String id, @Valid @RequestBody BookDTO bookDTO, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookDTO updatedBook = bookService.updateBook(id, bookDTO, ifMatch);
         return new ResponseEntity<>(updatedBook, HttpStatus.OK);
     }
 
@@ -59,11 +157,120 @@ public class BookController {
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
-    @Operation(summary = "Fetch Book By Id", description = "REST API to fetch a Book by Id inside Library Management System")
-    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
-    @GetMapping("/getBook/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable String id) {
-        BookDTO book = bookService.getBookById(id);
-        return new ResponseEntity<>(book, HttpStatus.OK);
+    @Operation(summary = "Fetch Books Page", description = "REST API to fetch one keyset-paginated page of Books inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getBooksPage")
+    public ResponseEntity<CursorPageDTO<BookDTO>> getBooksPage(@RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CursorPageDTO<BookDTO> page = bookService.getBooksPage(pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch Book Summaries Page", description = "REST API to fetch one keyset-paginated page of compact Book summaries inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getBookSummariesPage")
+    public ResponseEntity<CursorPageDTO<BookSummaryDTO>> getBookSummariesPage(@RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CursorPageDTO<BookSummaryDTO> page = bookService.getBookSummariesPage(pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Query Books", description = "REST API to fetch one page of Book summaries inside Library Management System filtered by author id or name, title prefix, ISBN prefix and creation time, sorted by any of id, title, isbn and createdAt (prefix with - for descending order, e.g. sort=-createdAt,title)")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/query")
+    public ResponseEntity<CursorPageDTO<BookSummaryDTO>> queryBooks(BookFilterDTO filter, @RequestParam(defaultValue = "id") List<String> sort, @RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CursorPageDTO<BookSummaryDTO> page = bookService.queryBooks(filter, sort, pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Search Books", description = "REST API to search Books by words of their title, description or author name inside Library Management System, best match first. The last word also matches as a prefix")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<BookSummaryDTO>> searchBooks(@RequestParam @NotBlank String q, @RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        CursorPageDTO<BookSummaryDTO> page = bookService.searchBooks(q, pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Stream All Books", description = "REST API to stream all Books inside Library Management System as a JSON, CBOR or Smile array written incrementally, chosen through the Accept header")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/streamAllBooks", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllBooks(NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiateMediaType(contentNegotiationManager, webRequest);
+        ObjectMapper streamingObjectMapper = objectMapperFor(mediaType);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = streamingObjectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bookService.streamAllBooks(book -> {
+                    try {
+                        generator.writeObject(book);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    static MediaType negotiateMediaType(ContentNegotiationManager contentNegotiationManager, NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> acceptedMediaTypes = new ArrayList<>(contentNegotiationManager.resolveMediaTypes(webRequest));
+        MimeTypeUtils.sortBySpecificity(acceptedMediaTypes);
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType bodyMediaType : BODY_MEDIA_TYPES) {
+                if (acceptedMediaType.isCompatibleWith(bodyMediaType)) {
+                    return bodyMediaType;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * The CBOR and Smile bodies of a version are different bytes than its JSON body, so they get tags of their own; a
+     * cache holding one format must not revalidate it with the tag of another. JSON keeps the plain version tag.
+     */
+    static String entityTag(VersionDTO version, MediaType mediaType) {
+        if (MediaType.APPLICATION_CBOR.equals(mediaType)) {
+            return version.getTag() + "+cbor";
+        }
+        if (!MediaType.APPLICATION_JSON.equals(mediaType)) {
+            return version.getTag() + "+smile";
+        }
+        return version.getTag();
+    }
+
+    // The same mappers that write CBOR and Smile bodies for the other endpoints
+    private ObjectMapper objectMapperFor(MediaType mediaType) {
+        if (MediaType.APPLICATION_JSON.equals(mediaType)) {
+            return objectMapper;
+        }
+        return httpMessageConverters.getConverters().stream()
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(AbstractJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.canWrite(BookDTO.class, mediaType))
+                .findFirst()
+                .map(AbstractJackson2HttpMessageConverter::getObjectMapper)
+                .orElse(objectMapper);
+    }
+
+    @Operation(summary = "Fetch Books By Ids", description = "REST API to fetch many Books by Id inside Library Management System in one request, up to 1000 ids. Books come back in the order their ids were sent; ids that match no Book are listed in missingIds instead of failing the request")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping("/batch")
+    public ResponseEntity<BatchDTO<BookDTO>> getBooksByIds(@RequestBody @Size(max = MAX_BATCH_IDS) List<@NotBlank String> ids) {
+        BatchDTO<BookDTO> books = bookService.getBooksByIds(ids);
+        return new ResponseEntity<>(books, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch Book By Id", description = "REST API to fetch a Book by Id inside Library Management System. Responses carry an ETag and Last-Modified; conditional requests with If-None-Match or If-Modified-Since get 304 Not Modified while the Book is unchanged")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "304", description = "HTTP Status Not Modified"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/getBook/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<BookDTO> getBookById(@PathVariable String id, NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        VersionedDTO<BookDTO> book = bookService.getBookById(id);
+        // Answer 304 before the book is serialized; a cached book is not mapped again either
+        VersionDTO version = book.getVersion();
+        MediaType mediaType = negotiateMediaType(contentNegotiationManager, webRequest);
+        if (webRequest.checkNotModified(entityTag(version, mediaType), version.getLastModified().toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT).body(book.getContent());
     }
 }
@@ -0,0 +1,97 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
+import com.andrei.resmerita.library_mangement_system.service.ChangeFeedService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag(name = "Change feed REST API for the catalog in Library Management System", description = "REST API in Library Management System to FOLLOW the creations, updates and deletions of books and authors instead of re-reading the catalog")
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
+    // Clients reconnect after it with the last offset they received
+    @Value("${library.changes.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    @Operation(summary = "Stream Changes", description = "REST API to stream the changes to Books and Authors inside Library Management System as server-sent events or NDJSON, chosen through the Accept header. Changes after the given offset are sent first, then new ones as they are made; without an offset only new changes are sent. A reconnecting event source resumes through the Last-Event-ID header")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "410", description = "HTTP Status Gone", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(@RequestParam(required = false) Long after, @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId, NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiateStreamingMediaType(webRequest);
+        boolean serverSentEvents = mediaType.equals(MediaType.TEXT_EVENT_STREAM);
+        ResponseBodyEmitter emitter = serverSentEvents ? new SseEmitter(streamTimeout.toMillis()) : new ResponseBodyEmitter(streamTimeout.toMillis());
+        // The header is sent on reconnection and is newer than the offset in the original URL
+        ChangeFeedService.Subscription subscription = changeFeedService.subscribe(lastEventId != null ? lastEventId : after, new ChangeFeedService.ChangeListener() {
+            @Override
+            public void onChanges(List<ChangeEventDTO> changes) throws IOException {
+                for (ChangeEventDTO change : changes) {
+                    if (serverSentEvents) {
+                        ((SseEmitter) emitter).send(SseEmitter.event().id(String.valueOf(change.getOffset())).name("change").data(change, MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send((objectMapper.writeValueAsString(change) + "\n").getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_NDJSON);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                emitter.completeWithError(exception);
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        return ResponseEntity.ok().contentType(mediaType).body(emitter);
+    }
+
+    private MediaType negotiateStreamingMediaType(NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> acceptedMediaTypes = new ArrayList<>(contentNegotiationManager.resolveMediaTypes(webRequest));
+        MimeTypeUtils.sortBySpecificity(acceptedMediaTypes);
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType streamingMediaType : STREAMING_MEDIA_TYPES) {
+                if (acceptedMediaType.isCompatibleWith(streamingMediaType)) {
+                    return streamingMediaType;
+                }
+            }
+        }
+        return MediaType.TEXT_EVENT_STREAM;
+    }
+}
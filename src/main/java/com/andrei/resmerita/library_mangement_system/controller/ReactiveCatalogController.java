@@ -0,0 +1,78 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.service.ReactiveCatalogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Served by the WebFlux server of {@link com.andrei.resmerita.library_mangement_system.config.ReactiveCatalogServer} on
+ * its own port; the condition keeps the servlet application from registering it as an MVC controller.
+ */
+@Tag(name = "Reactive read APIs for the Library Management System catalog", description = "REST APIs in Library Management System to FETCH books and authors over R2DBC on a WebFlux server, streaming collections as NDJSON or server-sent events")
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/reactive")
+public class ReactiveCatalogController {
+
+    @Autowired
+    private ReactiveCatalogService reactiveCatalogService;
+
+    @Operation(summary = "Stream All Books", description = "REST API to stream all Books inside Library Management System as NDJSON or server-sent events, one Book per element, written as fast as the client reads")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/books/getAllBooks", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<BookDTO> getAllBooks() {
+        return reactiveCatalogService.getAllBooks();
+    }
+
+    @Operation(summary = "Fetch Book By Id", description = "REST API to fetch a Book by Id inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/books/getBook/{id}")
+    public Mono<BookDTO> getBookById(@PathVariable String id) {
+        return reactiveCatalogService.getBookById(id);
+    }
+
+    @Operation(summary = "Stream All Authors", description = "REST API to stream all Authors with their book count inside Library Management System as NDJSON or server-sent events, one Author per element. Their Books are only listed with includeBooks=true")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/authors/getAll", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AuthorDTO> getAllAuthors(@RequestParam(defaultValue = "false") boolean includeBooks) {
+        return reactiveCatalogService.getAllAuthors(includeBooks);
+    }
+
+    @Operation(summary = "Fetch Author By Id", description = "REST API to fetch an Author by Id with their book count inside Library Management System. Their Books are only listed with includeBooks=true")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "404", description = "HTTP Status Not Found", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/authors/getAuthorById/{id}")
+    public Mono<AuthorDTO> getAuthorById(@PathVariable String id, @RequestParam(defaultValue = "false") boolean includeBooks) {
+        return reactiveCatalogService.getAuthorById(id, includeBooks);
+    }
+
+    // The MVC GlobalExceptionHandler is not part of the reactive context, so not-found errors are answered here in the same shape
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(ResourceNotFoundException exception, ServerHttpRequest request) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto("uri=" + request.getPath().value(), HttpStatus.NOT_FOUND, exception.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
+    }
+}
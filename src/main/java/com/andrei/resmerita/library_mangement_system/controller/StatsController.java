@@ -0,0 +1,49 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CatalogStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ErrorResponseDto;
+import com.andrei.resmerita.library_mangement_system.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Statistics REST APIs for the catalog in Library Management System", description = "REST APIs in Library Management System to FETCH aggregate figures about books and authors")
+@RestController
+@RequestMapping("/stats")
+@Validated
+public class StatsController {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Operation(summary = "Fetch Catalog Stats", description = "REST API to fetch the number of Books and Authors, the most prolific Authors and the most recently added Books inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getCatalogStats")
+    public ResponseEntity<CatalogStatsDTO> getCatalogStats(@RequestParam(defaultValue = "10") @Min(1) @Max(100) int top, @RequestParam(defaultValue = "10") @Min(1) @Max(100) int recent) {
+        CatalogStatsDTO stats = statsService.getCatalogStats(top, recent);
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch Books Per Author", description = "REST API to fetch one keyset-paginated page of Authors with the number of Books each wrote inside Library Management System")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "HTTP Status OK"), @ApiResponse(responseCode = "400", description = "HTTP Status Bad Request", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/getBooksPerAuthor")
+    public ResponseEntity<CursorPageDTO<AuthorStatsDTO>> getBooksPerAuthor(@RequestParam(required = false) String pageToken, @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CursorPageDTO<AuthorStatsDTO> page = statsService.getBooksPerAuthor(pageToken, size);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+}
@@ -24,7 +24,10 @@ public class AuthorDTO {
     @NotEmpty(message = "Biography cannot be null or empty")
     private String bio;
 
-    @Schema(description = "Books written by the author")
+    @Schema(description = "Books written by the author. Responses only list them when asked to, see bookCount")
     @Valid
     private Set<@Valid BookDTO> books;
+
+    @Schema(description = "Total number of books written by the author", example = "7", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long bookCount;
 }
\ No newline at end of file
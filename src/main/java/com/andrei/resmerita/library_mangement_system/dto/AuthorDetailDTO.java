@@ -0,0 +1,28 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "AuthorDetail", description = "Schema to hold Author information with one page of their books")
+public class AuthorDetailDTO {
+
+    @Schema(description = "Id of the author", example = "5e8f5a9c-2b7d-4a1e-8c3f-6d2b1a0e9f8c")
+    private String id;
+
+    @Schema(description = "Name of the author", example = "J.K. Rowling")
+    private String name;
+
+    @Schema(description = "Biography of the author", example = "British author, best known for the Harry Potter series.")
+    private String bio;
+
+    @Schema(description = "Total number of books written by the author", example = "7")
+    private long bookCount;
+
+    @Schema(description = "One page of the books written by the author, ordered by id")
+    private CursorPageDTO<BookSummaryDTO> books;
+}
@@ -0,0 +1,22 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "AuthorStats", description = "Schema to hold an Author with the number of books they wrote")
+public class AuthorStatsDTO {
+
+    @Schema(description = "Id of the author", example = "5e8f5a9c-2b7d-4a1e-8c3f-6d2b1a0e9f8c")
+    private String authorId;
+
+    @Schema(description = "Name of the author", example = "J.K. Rowling")
+    private String authorName;
+
+    @Schema(description = "Number of books written by the author", example = "7")
+    private long bookCount;
+}
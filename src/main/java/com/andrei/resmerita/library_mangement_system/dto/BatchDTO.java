@@ -0,0 +1,21 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "Batch", description = "Schema to hold the items found for a list of ids")
+public class BatchDTO<T> {
+
+    @Schema(description = "Items found, in the order their ids were requested. Repeated ids are returned once")
+    private List<T> content;
+
+    @Schema(description = "Requested ids that match no item, in request order", example = "[\"0b0c3c4e-5d2a-4f57-9c4b-3f1c3e9f1a2b\"]")
+    private List<String> missingIds;
+}
@@ -0,0 +1,32 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "BookFilter", description = "Schema to hold the optional filters of a book query; books must match all filters that are set")
+public class BookFilterDTO {
+
+    @Schema(description = "Id of the author of the books", example = "5e8f5a9c-2b7d-4a1e-8c3f-6d2b1a0e9f8c")
+    private String authorId;
+
+    @Schema(description = "Exact name of the author of the books", example = "J.K. Rowling")
+    private String authorName;
+
+    @Schema(description = "Case-sensitive start of the title", example = "Harry Potter")
+    private String titlePrefix;
+
+    @Schema(description = "Start of the ISBN", example = "978074")
+    private String isbnPrefix;
+
+    @Schema(description = "Only books added after this time", example = "2024-07-01T00:00:00Z")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdAfter;
+}
@@ -0,0 +1,28 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "BookSummary", description = "Schema to hold a compact view of a Book with a reference to its author")
+public class BookSummaryDTO {
+
+    @Schema(description = "Id of the book", example = "0b0c3c4e-5d2a-4f57-9c4b-3f1c3e9f1a2b")
+    private String id;
+
+    @Schema(description = "Title of the book", example = "Harry Potter and the Philosopher's Stone")
+    private String title;
+
+    @Schema(description = "ISBN of the book", example = "9780747532699")
+    private String isbn;
+
+    @Schema(description = "Id of the author of the book", example = "5e8f5a9c-2b7d-4a1e-8c3f-6d2b1a0e9f8c")
+    private String authorId;
+
+    @Schema(description = "Name of the author of the book", example = "J.K. Rowling")
+    private String authorName;
+}
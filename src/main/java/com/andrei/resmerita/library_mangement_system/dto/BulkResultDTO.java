@@ -0,0 +1,32 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "BulkResult", description = "Schema to hold the outcome of one row of a bulk request")
+public class BulkResultDTO {
+
+    @Schema(description = "Zero-based position of the row in the request", example = "0")
+    private int index;
+
+    @Schema(description = "ISBN of the book in the row", example = "9780747532699")
+    private String isbn;
+
+    @Schema(description = "Outcome of the row", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "Id of the created book, only set when the row was created", example = "0b0c3c4e-5d2a-4f57-9c4b-3f1c3e9f1a2b")
+    private String id;
+
+    @Schema(description = "Reason the row was rejected", example = "A book with this ISBN already exists.")
+    private String message;
+
+    public enum Status {
+        CREATED, INVALID, DUPLICATE, AUTHOR_NOT_FOUND
+    }
+}
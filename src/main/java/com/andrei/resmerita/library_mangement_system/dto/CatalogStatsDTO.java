@@ -0,0 +1,27 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "CatalogStats", description = "Schema to hold aggregate figures about the whole catalog")
+public class CatalogStatsDTO {
+
+    @Schema(description = "Number of books in the catalog", example = "1250")
+    private long totalBooks;
+
+    @Schema(description = "Number of authors in the catalog", example = "310")
+    private long totalAuthors;
+
+    @Schema(description = "Authors with the most books, most prolific first")
+    private List<AuthorStatsDTO> topAuthors;
+
+    @Schema(description = "Most recently added books, newest first")
+    private List<BookSummaryDTO> recentBooks;
+}
@@ -0,0 +1,31 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ChangeEvent", description = "Schema to hold one change to a book or an author. Changes carry no state: read the current state of the resource by id")
+public class ChangeEventDTO {
+
+    @Schema(description = "Position of the change in the feed; resume after it with the after parameter or the Last-Event-ID header", example = "1042")
+    private Long offset;
+
+    @Schema(description = "Kind of resource that changed", example = "BOOK")
+    private ChangeEvent.ResourceType resourceType;
+
+    @Schema(description = "Id of the resource that changed", example = "0192a8e4-7c1e-7f01-8a9b-2c3d4e5f6a7b")
+    private String resourceId;
+
+    @Schema(description = "What happened to the resource", example = "UPDATED")
+    private ChangeEvent.Type type;
+
+    @Schema(description = "Time the change was made", example = "2024-07-01T12:00:00Z")
+    private Instant occurredAt;
+}
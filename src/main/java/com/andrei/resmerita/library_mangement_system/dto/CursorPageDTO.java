@@ -0,0 +1,21 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "CursorPage", description = "Schema to hold one keyset-paginated slice of a result set")
+public class CursorPageDTO<T> {
+
+    @Schema(description = "Items of the current page, ordered by id")
+    private List<T> content;
+
+    @Schema(description = "Opaque token to pass back to fetch the next page, null when there are no more items", example = "ZjM2YjM2ZGMtNGM0NS00ZjU0")
+    private String nextPageToken;
+}
@@ -0,0 +1,21 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Validators of a book or author representation: an opaque tag that changes whenever the representation does, used as a
+ * strong ETag, and the time of the last change, used as Last-Modified.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionDTO {
+
+    private String tag;
+
+    private Instant lastModified;
+}
@@ -0,0 +1,19 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A book or author representation together with its validators, both taken from the same entity state so that an ETag
+ * never describes a different body than the one it is sent with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionedDTO<T> {
+
+    private T content;
+
+    private VersionDTO version;
+}
@@ -0,0 +1,44 @@
+package com.andrei.resmerita.library_mangement_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "WriteOperation", description = "Schema to hold the state of a create request accepted for asynchronous processing")
+public class WriteOperationDTO {
+
+    @Schema(description = "Id of the operation, used to poll its state", example = "0192a8e4-7c1d-7a3b-9f2e-4b6d8c0e1f23")
+    private String id;
+
+    @Schema(description = "Kind of resource the operation creates", example = "BOOK")
+    private Type type;
+
+    @Schema(description = "State of the operation", example = "COMPLETED")
+    private Status status;
+
+    @Schema(description = "Id of the created book, only set when a book operation completed", example = "0192a8e4-7c1e-7f01-8a9b-2c3d4e5f6a7b")
+    private String resourceId;
+
+    @Schema(description = "Reason the operation failed", example = "A book with this ISBN already exists.")
+    private String message;
+
+    @Schema(description = "Time the request was accepted", example = "2024-07-01T12:00:00Z")
+    private Instant acceptedAt;
+
+    @Schema(description = "Time the operation was written or failed, null while pending", example = "2024-07-01T12:00:00.050Z")
+    private Instant completedAt;
+
+    public enum Type {
+        BOOK, AUTHOR
+    }
+
+    public enum Status {
+        PENDING, COMPLETED, FAILED
+    }
+}
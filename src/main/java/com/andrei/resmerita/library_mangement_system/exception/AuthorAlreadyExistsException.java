@@ -1,7 +0,0 @@
-package com.andrei.resmerita.library_mangement_system.exception;
-
-public class AuthorAlreadyExistsException extends RuntimeException {
-    public AuthorAlreadyExistsException(String message) {
-        super(message);
-    }
-}
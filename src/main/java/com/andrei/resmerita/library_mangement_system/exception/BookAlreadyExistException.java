@@ -1,7 +0,0 @@
-package com.andrei.resmerita.library_mangement_system.exception;
-
-public class BookAlreadyExistException extends RuntimeException {
-    public BookAlreadyExistException(String message) {
-        super(message);
-    }
-}
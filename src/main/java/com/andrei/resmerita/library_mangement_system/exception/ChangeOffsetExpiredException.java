@@ -0,0 +1,7 @@
+package com.andrei.resmerita.library_mangement_system.exception;
+
+public class ChangeOffsetExpiredException extends RuntimeException {
+    public ChangeOffsetExpiredException(String message) {
+        super(message);
+    }
+}
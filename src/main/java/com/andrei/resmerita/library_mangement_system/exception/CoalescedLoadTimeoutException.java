@@ -0,0 +1,7 @@
+package com.andrei.resmerita.library_mangement_system.exception;
+
+public class CoalescedLoadTimeoutException extends RuntimeException {
+    public CoalescedLoadTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,18 @@
 package com.andrei.resmerita.library_mangement_system.exception;
 
+import jakarta.validation.ConstraintViolationException;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,21 +22,31 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
-    @ExceptionHandler(BookAlreadyExistException.class)
-    public ResponseEntity<ErrorResponseDto> handleBookAlreadyExistsException(BookAlreadyExistException exception, WebRequest webRequest) {
-        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.CONFLICT, exception.getMessage(), LocalDateTime.now());
+    private static final Map<String, String> UNIQUE_CONSTRAINT_MESSAGES = Map.of(
+            "uk_book_isbn", "A book with this ISBN already exists.",
+            "uk_author_name", "An author with this name already exists.");
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleDataIntegrityViolationException(DataIntegrityViolationException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.CONFLICT, conflictMessage(exception), LocalDateTime.now());
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.CONFLICT);
     }
 
-    @ExceptionHandler(AuthorAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponseDto> handleAuthorAlreadyExistsException(AuthorAlreadyExistsException exception, WebRequest webRequest) {
-        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.CONFLICT, exception.getMessage(), LocalDateTime.now());
-        return new ResponseEntity<>(errorResponseDTO, HttpStatus.CONFLICT);
+    private String conflictMessage(DataIntegrityViolationException exception) {
+        String constraintName = exception.getCause() instanceof org.hibernate.exception.ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName().toLowerCase(Locale.ROOT)
+                : "";
+        return UNIQUE_CONSTRAINT_MESSAGES.entrySet().stream()
+                .filter(entry -> constraintName.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse("The request conflicts with existing data.");
     }
 
     @ExceptionHandler(ResourceNotFoundException.class)
@@ -38,6 +55,62 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDto> handlePreconditionFailedException(PreconditionFailedException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.PRECONDITION_FAILED, exception.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // Two updates raced on the same version; the loser has to fetch the current state again
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.PRECONDITION_FAILED, "The resource was modified since it was fetched, fetch it again and retry.", LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(InvalidPageTokenException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidPageTokenException(InvalidPageTokenException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.BAD_REQUEST, exception.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidSortException(InvalidSortException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.BAD_REQUEST, exception.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(ConstraintViolationException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.BAD_REQUEST, exception.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
+
+    // Raised when no pooled connection frees up within the connection timeout, or a concurrent read of the same resource
+    // takes too long to share; the request can be retried later. Connections are checked out at the first statement of a
+    // transaction (see DataSourceConfig), so a pool timeout mostly surfaces as a resource failure of that statement, and
+    // as a JDBCConnectionException where Hibernate is not called through a repository
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class, JDBCConnectionException.class, CoalescedLoadTimeoutException.class})
+    public ResponseEntity<ErrorResponseDto> handleServiceBusyException(RuntimeException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.SERVICE_UNAVAILABLE, "The service is busy, please retry later.", LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // The change feed no longer keeps the events after the requested offset; the consumer re-reads the catalog. The body
+    // is JSON even though the request asked for an event stream
+    @ExceptionHandler(ChangeOffsetExpiredException.class)
+    public ResponseEntity<ErrorResponseDto> handleChangeOffsetExpiredException(ChangeOffsetExpiredException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.GONE, exception.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_JSON).body(errorResponseDTO);
+    }
+
+    // The write-behind queue is full; the client backs off and resubmits
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<ErrorResponseDto> handleWriteQueueFullException(WriteQueueFullException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(webRequest.getDescription(false), HttpStatus.TOO_MANY_REQUESTS, exception.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponseDTO);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
         Map<String, String> validationErrors = new HashMap<>();
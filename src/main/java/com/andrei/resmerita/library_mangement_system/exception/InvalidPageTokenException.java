@@ -0,0 +1,7 @@
+package com.andrei.resmerita.library_mangement_system.exception;
+
+public class InvalidPageTokenException extends RuntimeException {
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+}
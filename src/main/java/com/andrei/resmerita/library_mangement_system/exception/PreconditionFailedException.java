@@ -0,0 +1,7 @@
+package com.andrei.resmerita.library_mangement_system.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,15 +1,44 @@
 package com.andrei.resmerita.library_mangement_system.mapper;
 
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
 import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
 public interface AuthorMapper {
     AuthorMapper INSTANCE = Mappers.getMapper(AuthorMapper.class);
 
-    AuthorDTO toAuthorDTO(Author author);
+    default AuthorDTO toAuthorDTO(Author author) {
+        return toAuthorDTO(author, new CycleAvoidingMappingContext());
+    }
 
+    @Mapping(target = "bookCount", expression = "java(author.getBooks() == null ? null : (long) author.getBooks().size())")
+    AuthorDTO toAuthorDTO(Author author, @Context CycleAvoidingMappingContext context);
+
+    // Leaves the books collection untouched, so it is never loaded
+    @Mapping(target = "books", ignore = true)
+    AuthorDTO toAuthorDTOWithoutBooks(Author author, long bookCount);
+
+    @Mapping(target = "bookCount", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    AuthorDetailDTO toAuthorDetailDTO(Author author);
+
+    // Versions and timestamps are set by the persistence layer, never taken from a request
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Author toAuthor(AuthorDTO authorDTO);
-}
\ No newline at end of file
+
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    Book toBook(BookDTO bookDTO);
+
+    @Mapping(target = "author", ignore = true)
+    BookDTO toBookDTO(Book book, @Context CycleAvoidingMappingContext context);
+}
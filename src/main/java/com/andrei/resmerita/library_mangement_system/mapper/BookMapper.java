@@ -1,16 +1,43 @@
 package com.andrei.resmerita.library_mangement_system.mapper;
 
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
+import java.util.List;
+
 
 @Mapper
 public interface BookMapper {
     BookMapper INSTANCE = Mappers.getMapper(BookMapper.class);
 
-    BookDTO toBookDTO(Book book);
+    @Named("standalone")
+    default BookDTO toBookDTO(Book book) {
+        return toBookDTO(book, new CycleAvoidingMappingContext());
+    }
+
+    @Mapping(target = "author.books", ignore = true)
+    @Mapping(target = "author.bookCount", ignore = true)
+    BookDTO toBookDTO(Book book, @Context CycleAvoidingMappingContext context);
+
+    List<BookDTO> toBookDTOs(List<Book> books, @Context CycleAvoidingMappingContext context);
+
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "authorName", source = "author.name")
+    BookSummaryDTO toBookSummaryDTO(Book book);
+
+    List<BookSummaryDTO> toBookSummaryDTOs(List<Book> books);
 
+    // Versions and timestamps are set by the persistence layer, never taken from a request
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "author.version", ignore = true)
+    @Mapping(target = "author.lastModified", ignore = true)
     Book toBook(BookDTO bookDTO);
-}
\ No newline at end of file
+}
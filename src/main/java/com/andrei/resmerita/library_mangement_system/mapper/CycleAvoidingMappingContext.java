@@ -0,0 +1,32 @@
+package com.andrei.resmerita.library_mangement_system.mapper;
+
+import org.mapstruct.BeforeMapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.TargetType;
+import org.mapstruct.AfterMapping;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers every entity already mapped during one mapping call, so that an entity reachable through several
+ * paths (e.g. the author shared by a list of books) is converted once and the same DTO instance is reused.
+ */
+public class CycleAvoidingMappingContext {
+
+    private final Map<Object, Object> knownInstances = new IdentityHashMap<>();
+
+    // The target type is raw for generic targets such as Set<BookDTO>; the caller's type is inferred instead, so the
+    // generated mappers compile without unchecked conversions
+    @BeforeMapping
+    @SuppressWarnings("unchecked")
+    public <T> T getMappedInstance(Object source, @TargetType Class<?> targetType) {
+        Object mapped = knownInstances.get(source);
+        return targetType.isInstance(mapped) ? (T) mapped : null;
+    }
+
+    @AfterMapping
+    public void storeMappedInstance(Object source, @MappingTarget Object target) {
+        knownInstances.put(source, target);
+    }
+}
@@ -2,18 +2,40 @@ package com.andrei.resmerita.library_mangement_system.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "author", uniqueConstraints = @UniqueConstraint(name = "uk_author_name", columnNames = "name"))
 @Data
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
     private String id;
     private String name;
     private String bio;
-    @OneToMany(mappedBy = "author")
+    // Only loaded when a response lists the books; the collections of up to 50 authors are then read in one statement
+    @OneToMany(mappedBy = "author", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Book> books;
+    // Also bumped when one of the author's books changes, see AuthorRepository.touch
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    private Instant lastModified;
 
 }
\ No newline at end of file
@@ -4,14 +4,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "book",
+        uniqueConstraints = @UniqueConstraint(name = "uk_book_isbn", columnNames = "isbn"),
+        indexes = {
+                @Index(name = "idx_book_author_id", columnList = "author_id, id"),
+                @Index(name = "idx_book_title", columnList = "title, id"),
+                @Index(name = "idx_book_created_at", columnList = "created_at, id"),
+                @Index(name = "idx_book_author_title", columnList = "author_id, title, id"),
+                @Index(name = "idx_book_author_created_at", columnList = "author_id, created_at, id")})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
     private String id;
     private String title;
     private String description;
@@ -19,4 +37,12 @@ public class Book {
     @ManyToOne
     @JoinColumn(name = "author_id", nullable = false)
     private Author author;
+    // Also bumped when the book's author is updated, see BookRepository.touchByAuthorId
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    private Instant lastModified;
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
 }
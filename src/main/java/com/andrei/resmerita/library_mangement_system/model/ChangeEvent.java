@@ -0,0 +1,56 @@
+package com.andrei.resmerita.library_mangement_system.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JavaType;
+
+import java.time.Instant;
+
+/**
+ * One change to a book or an author, written in the transaction that made it. The feed offset stays empty until the
+ * relay publishes the event.
+ */
+@Entity
+@Table(name = "change_event",
+        uniqueConstraints = @UniqueConstraint(name = "uk_change_event_feed_offset", columnNames = "feed_offset"),
+        indexes = @Index(name = "idx_change_event_feed_offset_id", columnList = "feed_offset, id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeEvent {
+    // Generated without a round trip, so the events of a bulk import are inserted in JDBC batches
+    @Id
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    private String id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private ResourceType resourceType;
+    @JavaType(UuidStringJavaType.class)
+    @Column(nullable = false, updatable = false)
+    private String resourceId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false)
+    private Type type;
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant occurredAt;
+    private Long feedOffset;
+
+    public ChangeEvent(ResourceType resourceType, String resourceId, Type type) {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+        this.type = type;
+    }
+
+    public enum ResourceType {
+        BOOK, AUTHOR
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,84 @@
+package com.andrei.resmerita.library_mangement_system.model;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Stores string ids in native UUID columns, 16 bytes instead of a 36 character string in every primary key, foreign key
+ * and index entry. Ids keep their string form everywhere else, so URLs, DTOs and page tokens are unchanged. An id that is
+ * not a UUID at all cannot exist, so it is looked up as the nil UUID, which is never generated and matches no row.
+ */
+public class UuidStringJavaType extends AbstractClassJavaType<String> {
+
+    private static final UUID NO_MATCH = new UUID(0, 0);
+
+    public UuidStringJavaType() {
+        super(String.class);
+    }
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators indicators) {
+        return indicators.getJdbcType(SqlTypes.UUID);
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string == null ? null : string.toString();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (String.class.isAssignableFrom(type)) {
+            return (X) value;
+        }
+        UUID uuid = toUuid(value);
+        if (UUID.class.isAssignableFrom(type)) {
+            return (X) uuid;
+        }
+        if (byte[].class.isAssignableFrom(type)) {
+            return (X) ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String string) {
+            return string;
+        }
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        if (value instanceof byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        throw unknownWrap(value.getClass());
+    }
+
+    public static UUID toUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException exception) {
+            return NO_MATCH;
+        }
+    }
+}
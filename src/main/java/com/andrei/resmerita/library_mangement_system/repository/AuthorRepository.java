@@ -1,13 +1,50 @@
 package com.andrei.resmerita.library_mangement_system.repository;
 
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
 import com.andrei.resmerita.library_mangement_system.model.Author;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, String> {
     Optional<Author> findByName(String name);
-}
 
+    boolean existsByName(String name);
+
+    List<Author> findByNameIn(Collection<String> names);
+
+    @EntityGraph(attributePaths = "books")
+    Optional<Author> findWithBooksById(String id);
+
+    /**
+     * Bumps the version and last-modified time of authors whose books changed, since an author's representation embeds
+     * its books. Runs as a single statement, without loading the authors.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Author a set a.version = a.version + 1, a.lastModified = :now where a.id in :ids")
+    int touch(Collection<String> ids, Instant now);
+
+    // Book counts are grouped in the database over the (author_id, id) index, without loading any book
+    @Query("select new com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO(a.id, a.name, count(b)) from Author a left join a.books b group by a.id, a.name order by count(b) desc, a.id")
+    List<AuthorStatsDTO> findTopByBookCount(Limit limit);
+
+    @Query("select new com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO(a.id, a.name, count(b)) from Author a left join a.books b group by a.id, a.name order by a.id")
+    List<AuthorStatsDTO> findBookCountsOrderByIdAsc(Limit limit);
+
+    @Query("select new com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO(a.id, a.name, count(b)) from Author a left join a.books b where a.id > :id group by a.id, a.name order by a.id")
+    List<AuthorStatsDTO> findBookCountsByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    @Query("select new com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO(a.id, a.name, count(b)) from Author a left join a.books b where a.id in :ids group by a.id, a.name")
+    List<AuthorStatsDTO> findBookCountsByIdIn(Collection<String> ids);
+}
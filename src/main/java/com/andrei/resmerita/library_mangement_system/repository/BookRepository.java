@@ -1,13 +1,69 @@
 package com.andrei.resmerita.library_mangement_system.repository;
 
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, String> {
+public interface BookRepository extends JpaRepository<Book, String>, JpaSpecificationExecutor<Book> {
     Optional<Book> findByIsbn(String isbn);
 
+    // Books embed their author's name and bio, so an author update gives all of them new versions in one statement
+    @Modifying
+    @Transactional
+    @Query("update Book b set b.version = b.version + 1, b.lastModified = :now where b.author.id = :authorId")
+    int touchByAuthorId(String authorId, Instant now);
+
+    boolean existsByIsbn(String isbn);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(Collection<String> isbns);
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAll();
+
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByIdIn(Collection<String> ids);
+
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAllByOrderByIdAsc(Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Read backwards through the (created_at, id) index; ids migrated by V2 are random UUIDs, so only created_at orders every book
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    // The summaries carry the author's name, which is read in the same statement
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByAuthorIdOrderByIdAsc(String authorId, Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByAuthorIdAndIdGreaterThanOrderByIdAsc(String authorId, String id, Limit limit);
+
+    long countByAuthorId(String authorId);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Book> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,41 @@
+package com.andrei.resmerita.library_mangement_system.repository;
+
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, String> {
+
+    // Committed events the relay has not published yet, oldest first
+    List<ChangeEvent> findByFeedOffsetIsNullOrderByIdAsc(Limit limit);
+
+    // Published events read as DTOs over the (feed_offset, id) index, without loading entities
+    @Transactional(readOnly = true)
+    @Query("select new com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO(e.feedOffset, e.resourceType, e.resourceId, e.type, e.occurredAt) from ChangeEvent e where e.feedOffset > :offset order by e.feedOffset")
+    List<ChangeEventDTO> findPublishedAfter(long offset, Limit limit);
+
+    // Held until the relay's transaction ends, so relays of other instances number their batches after this one
+    @Query(value = "select id from change_feed_relay where id = 1 for update", nativeQuery = true)
+    Integer lockRelay();
+
+    @Query("select max(e.feedOffset) from ChangeEvent e")
+    Optional<Long> findLastFeedOffset();
+
+    @Query("select min(e.feedOffset) from ChangeEvent e")
+    Optional<Long> findFirstFeedOffset();
+
+    // The last published event is always kept, so offsets continue from it after a restart
+    @Modifying
+    @Query("delete from ChangeEvent e where e.feedOffset < :lastFeedOffset and e.occurredAt < :before")
+    int deletePublishedBefore(Instant before, long lastFeedOffset);
+}
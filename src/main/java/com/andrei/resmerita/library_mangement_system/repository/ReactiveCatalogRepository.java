@@ -0,0 +1,122 @@
+package com.andrei.resmerita.library_mangement_system.repository;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.model.UuidStringJavaType;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking reads of the catalog over R2DBC. Rows are mapped straight to DTOs shaped like the ones the MVC endpoints
+ * return. Authors come with their book count from one grouped query, or with their books assembled from a single join
+ * ordered by author, so results stream without N+1 queries.
+ * <p>
+ * r2dbc-h2 runs every query on the subscribing thread, which on the WebFlux server is an event loop, so queries against
+ * H2 are moved to a bounded elastic thread. Drivers such as r2dbc-postgresql do not block and stay on the event loop.
+ */
+@Repository
+public class ReactiveCatalogRepository {
+
+    private static final String SELECT_BOOKS = "select b.title, b.description, b.isbn, a.name as author_name, a.bio as author_bio from book b left join author a on a.id = b.author_id";
+    private static final String SELECT_AUTHOR_COUNTS = "select a.name, a.bio, count(b.id) as book_count from author a left join book b on b.author_id = a.id";
+    private static final String GROUP_AUTHOR_COUNTS = " group by a.id, a.name, a.bio";
+    private static final String SELECT_AUTHORS = "select a.id, a.name, a.bio, b.title, b.description, b.isbn from author a left join book b on b.author_id = a.id";
+    private static final String H2 = "H2";
+
+    private final DatabaseClient databaseClient;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public ReactiveCatalogRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.scheduler = H2.equals(databaseClient.getConnectionFactory().getMetadata().getName()) ? Schedulers.boundedElastic() : Schedulers.immediate();
+    }
+
+    public Flux<BookDTO> findAllBooks() {
+        return databaseClient.sql(SELECT_BOOKS + " order by b.id")
+                .map(ReactiveCatalogRepository::toBookWithAuthor)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<BookDTO> findBookById(String id) {
+        return databaseClient.sql(SELECT_BOOKS + " where b.id = :id")
+                .bind("id", UuidStringJavaType.toUuid(id))
+                .map(ReactiveCatalogRepository::toBookWithAuthor)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    public Flux<AuthorDTO> findAllAuthors() {
+        return databaseClient.sql(SELECT_AUTHOR_COUNTS + GROUP_AUTHOR_COUNTS + " order by a.id")
+                .map(ReactiveCatalogRepository::toAuthorWithBookCount)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<AuthorDTO> findAuthorById(String id) {
+        return databaseClient.sql(SELECT_AUTHOR_COUNTS + " where a.id = :id" + GROUP_AUTHOR_COUNTS)
+                .bind("id", UuidStringJavaType.toUuid(id))
+                .map(ReactiveCatalogRepository::toAuthorWithBookCount)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    public Flux<AuthorDTO> findAllAuthorsWithBooks() {
+        return toAuthors(databaseClient.sql(SELECT_AUTHORS + " order by a.id, b.id")
+                .map(AuthorBookRow::of)
+                .all())
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<AuthorDTO> findAuthorWithBooksById(String id) {
+        return toAuthors(databaseClient.sql(SELECT_AUTHORS + " where a.id = :id order by b.id")
+                .bind("id", UuidStringJavaType.toUuid(id))
+                .map(AuthorBookRow::of)
+                .all())
+                .next()
+                .subscribeOn(scheduler);
+    }
+
+    private static Flux<AuthorDTO> toAuthors(Flux<AuthorBookRow> rows) {
+        return rows.bufferUntilChanged(AuthorBookRow::authorId).map(ReactiveCatalogRepository::toAuthor);
+    }
+
+    private static AuthorDTO toAuthor(List<AuthorBookRow> rows) {
+        Set<BookDTO> books = new LinkedHashSet<>();
+        rows.stream().filter(row -> row.book() != null).forEach(row -> books.add(row.book()));
+        AuthorBookRow first = rows.get(0);
+        return new AuthorDTO(first.name(), first.bio(), books, (long) books.size());
+    }
+
+    private static AuthorDTO toAuthorWithBookCount(Readable row) {
+        return new AuthorDTO(row.get("name", String.class), row.get("bio", String.class), null, row.get("book_count", Long.class));
+    }
+
+    private static BookDTO toBookWithAuthor(Readable row) {
+        String authorName = row.get("author_name", String.class);
+        AuthorDTO author = authorName == null ? null : new AuthorDTO(authorName, row.get("author_bio", String.class), null, null);
+        return new BookDTO(row.get("title", String.class), row.get("description", String.class), row.get("isbn", String.class), author);
+    }
+
+    // The id is only compared to group rows, so it is kept in whatever form the driver returns for a UUID column
+    private record AuthorBookRow(Object authorId, String name, String bio, BookDTO book) {
+
+        static AuthorBookRow of(Readable row) {
+            String isbn = row.get("isbn", String.class);
+            // A left-joined author without books comes back as a single row with empty book columns
+            BookDTO book = isbn == null ? null : new BookDTO(row.get("title", String.class), row.get("description", String.class), isbn, null);
+            return new AuthorBookRow(row.get("id"), row.get("name", String.class), row.get("bio", String.class), book);
+        }
+    }
+}
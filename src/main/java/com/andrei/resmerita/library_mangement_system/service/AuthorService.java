@@ -1,6 +1,11 @@
 package com.andrei.resmerita.library_mangement_system.service;
 
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
 import com.andrei.resmerita.library_mangement_system.model.Author;
 
 import java.util.List;
@@ -8,13 +13,19 @@ import java.util.List;
 public interface AuthorService {
     AuthorDTO saveAuthor(AuthorDTO authorDTO);
 
-    AuthorDTO updateAuthor(String id, AuthorDTO authorDTO);
+    List<AuthorDTO> saveAuthors(List<AuthorDTO> authorDTOs);
+
+    AuthorDTO updateAuthor(String id, AuthorDTO authorDTO, String ifMatch);
 
     void deleteAuthor(String id);
 
-    List<AuthorDTO> getAllAuthors();
+    List<AuthorDTO> getAllAuthors(boolean includeBooks);
+
+    VersionedDTO<AuthorDTO> getAuthorById(String id, boolean includeBooks);
+
+    BatchDTO<AuthorDTO> getAuthorsByIds(List<String> ids);
 
-    AuthorDTO getAuthorById(String id);
+    AuthorDetailDTO getAuthorDetails(String id, String booksPageToken, int booksSize);
 
-    boolean doesAuthorExist(String name);
+    CursorPageDTO<BookSummaryDTO> getAuthorBooks(String id, String pageToken, int size);
 }
\ No newline at end of file
@@ -1,19 +1,38 @@
 package com.andrei.resmerita.library_mangement_system.service;
 
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookService {
     BookDTO saveBook(BookDTO bookDTO);
 
-    BookDTO updateBook(String id, BookDTO bookDTO);
+    List<BulkResultDTO> saveBooks(List<BookDTO> bookDTOs);
+
+    BookDTO updateBook(String id, BookDTO bookDTO, String ifMatch);
 
     void deleteBook(String id);
 
     List<BookDTO> getAllBooks();
 
-    BookDTO getBookById(String id);
+    CursorPageDTO<BookDTO> getBooksPage(String pageToken, int size);
+
+    CursorPageDTO<BookSummaryDTO> getBookSummariesPage(String pageToken, int size);
+
+    CursorPageDTO<BookSummaryDTO> queryBooks(BookFilterDTO filter, List<String> sort, String pageToken, int size);
+
+    void streamAllBooks(Consumer<BookDTO> consumer);
+
+    CursorPageDTO<BookSummaryDTO> searchBooks(String query, String pageToken, int size);
+
+    VersionedDTO<BookDTO> getBookById(String id);
 
-    boolean isBookAlreadyCreated(String isbn);
+    BatchDTO<BookDTO> getBooksByIds(List<String> ids);
 }
@@ -0,0 +1,27 @@
+package com.andrei.resmerita.library_mangement_system.service;
+
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ChangeOffsetExpiredException;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface ChangeFeedService {
+    /**
+     * Starts sending the published changes after the given offset to the listener, first those already published and
+     * then new ones as they are relayed. Without an offset only new changes are sent; an offset before the oldest kept
+     * change, or a negative one, is rejected with a {@link ChangeOffsetExpiredException}.
+     */
+    Subscription subscribe(Long after, ChangeListener listener);
+
+    interface ChangeListener {
+        void onChanges(List<ChangeEventDTO> changes) throws IOException;
+
+        // Called once when changes can no longer be delivered; nothing is sent afterwards
+        void onError(Exception exception);
+    }
+
+    interface Subscription {
+        void cancel();
+    }
+}
@@ -0,0 +1,16 @@
+package com.andrei.resmerita.library_mangement_system.service;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCatalogService {
+    Flux<BookDTO> getAllBooks();
+
+    Mono<BookDTO> getBookById(String id);
+
+    Flux<AuthorDTO> getAllAuthors(boolean includeBooks);
+
+    Mono<AuthorDTO> getAuthorById(String id, boolean includeBooks);
+}
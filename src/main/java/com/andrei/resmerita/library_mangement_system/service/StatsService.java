@@ -0,0 +1,11 @@
+package com.andrei.resmerita.library_mangement_system.service;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CatalogStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+
+public interface StatsService {
+    CatalogStatsDTO getCatalogStats(int topAuthors, int recentBooks);
+
+    CursorPageDTO<AuthorStatsDTO> getBooksPerAuthor(String pageToken, int size);
+}
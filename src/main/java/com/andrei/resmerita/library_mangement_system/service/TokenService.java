@@ -0,0 +1,8 @@
+package com.andrei.resmerita.library_mangement_system.service;
+
+import com.andrei.resmerita.library_mangement_system.dto.TokenDTO;
+import org.springframework.security.core.Authentication;
+
+public interface TokenService {
+    TokenDTO issueToken(Authentication authentication);
+}
@@ -0,0 +1,13 @@
+package com.andrei.resmerita.library_mangement_system.service;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
+
+public interface WriteBehindService {
+    WriteOperationDTO submitBook(BookDTO bookDTO);
+
+    WriteOperationDTO submitAuthor(AuthorDTO authorDTO);
+
+    WriteOperationDTO getOperation(String id, WriteOperationDTO.Type type);
+}
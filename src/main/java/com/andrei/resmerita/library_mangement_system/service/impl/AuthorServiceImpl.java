@@ -1,81 +1,209 @@
 package com.andrei.resmerita.library_mangement_system.service.impl;
 
+import com.andrei.resmerita.library_mangement_system.config.CacheConfig;
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
-import com.andrei.resmerita.library_mangement_system.exception.AuthorAlreadyExistsException;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
 import com.andrei.resmerita.library_mangement_system.mapper.AuthorMapper;
 import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
 import com.andrei.resmerita.library_mangement_system.model.Author;
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
 import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
 import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
 import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "library.service")
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
     private final AuthorMapper authorMapper;
     private final BookMapper bookMapper;
+    private final BookSearchIndex bookSearchIndex;
+    private final ChangeLog changeLog;
 
     @Autowired
-    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository, AuthorMapper authorMapper, BookMapper bookMapper) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository, AuthorMapper authorMapper, BookMapper bookMapper, BookSearchIndex bookSearchIndex, ChangeLog changeLog) {
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
         this.authorMapper = authorMapper;
         this.bookMapper = bookMapper;
+        this.bookSearchIndex = bookSearchIndex;
+        this.changeLog = changeLog;
     }
 
     @Override
+    @Transactional
     public AuthorDTO saveAuthor(AuthorDTO authorDTO) {
-        if (doesAuthorExist(authorDTO.getName())) {
-            throw new AuthorAlreadyExistsException("An author with this name already exists.");
+        return saveAuthors(List.of(authorDTO)).get(0);
+    }
+
+    /**
+     * Creates the authors and their new books in one transaction. The ISBNs of all nested books are checked with a single
+     * query; books that already exist keep their current author and are left out, the others are inserted in JDBC
+     * batches with the author that lists them.
+     */
+    @Override
+    @Transactional
+    public List<AuthorDTO> saveAuthors(List<AuthorDTO> authorDTOs) {
+        Set<String> isbns = authorDTOs.stream().map(AuthorDTO::getBooks).filter(Objects::nonNull).flatMap(Set::stream).map(BookDTO::getIsbn).collect(Collectors.toSet());
+        // ISBNs of books added earlier in the same request are taken as well
+        Set<String> takenIsbns = new HashSet<>(isbns.isEmpty() ? Set.of() : bookRepository.findExistingIsbns(isbns));
+
+        List<Author> authors = new ArrayList<>(authorDTOs.size());
+        List<Book> books = new ArrayList<>();
+        for (AuthorDTO authorDTO : authorDTOs) {
+            Author author = authorMapper.toAuthor(authorDTO);
+            author.setBooks(new HashSet<>());
+            if (authorDTO.getBooks() != null) {
+                for (BookDTO bookDTO : authorDTO.getBooks()) {
+                    if (takenIsbns.add(bookDTO.getIsbn())) {
+                        Book book = bookMapper.toBook(bookDTO);
+                        book.setAuthor(author);
+                        author.getBooks().add(book);
+                        books.add(book);
+                    }
+                }
+            }
+            authors.add(author);
         }
-        Set<Book> books = authorDTO.getBooks().stream().map(bookDTO -> bookRepository.findByIsbn(bookDTO.getIsbn()).orElseGet(() -> bookRepository.save(bookMapper.toBook(bookDTO)))).collect(Collectors.toSet());
-        Author author = authorMapper.toAuthor(authorDTO);
-        author.setBooks(books);
-        Author savedAuthor = authorRepository.save(author);
-        return authorMapper.toAuthorDTO(savedAuthor);
+
+        authorRepository.saveAll(authors);
+        bookRepository.saveAll(books);
+        changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.CREATED, authors.stream().map(Author::getId).toList());
+        changeLog.record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED, books.stream().map(Book::getId).toList());
+        // Duplicate names are rejected by the uk_author_name constraint here rather than at commit, see GlobalExceptionHandler
+        authorRepository.flush();
+        books.forEach(bookSearchIndex::index);
+        return authors.stream().map(authorMapper::toAuthorDTO).collect(Collectors.toList());
     }
 
     @Override
-    public AuthorDTO updateAuthor(String id, AuthorDTO authorDTO) {
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#id"), @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)})
+    @Transactional
+    public AuthorDTO updateAuthor(String id, AuthorDTO authorDTO, String ifMatch) {
         Author author = authorRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
+        ResourceVersions.checkIfMatch(ifMatch, ResourceVersions.of(author));
 
         // Update only the author's details
         author.setName(authorDTO.getName());
         author.setBio(authorDTO.getBio());
 
         Author updatedAuthor = authorRepository.save(author);
-        return authorMapper.toAuthorDTO(updatedAuthor);
+        bookRepository.touchByAuthorId(id, Instant.now());
+        // One event however many books embed the author, so renaming a prolific author stays one row; consumers refresh
+        // the author's books themselves
+        changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, Collections.singletonList(updatedAuthor.getId()));
+        bookSearchIndex.renameAuthor(updatedAuthor.getId(), updatedAuthor.getName());
+        return authorMapper.toAuthorDTOWithoutBooks(updatedAuthor, bookRepository.countByAuthorId(id));
     }
 
 
     @Override
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#id"), @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)})
+    @Transactional
     public void deleteAuthor(String id) {
-        authorRepository.deleteById(id);
+        // Deleting an author that does not exist does nothing and records no change
+        authorRepository.findById(id).ifPresent(author -> {
+            authorRepository.delete(author);
+            changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.DELETED, Collections.singletonList(author.getId()));
+        });
+    }
+
+    /**
+     * Without books, the authors are read with one statement and their book counts with a second one. With books, the
+     * collections are loaded as they are mapped, in batches of authors (see the batch size on Author.books).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorDTO> getAllAuthors(boolean includeBooks) {
+        List<Author> authors = authorRepository.findAll();
+        if (includeBooks) {
+            return authors.stream().map(authorMapper::toAuthorDTO).collect(Collectors.toList());
+        }
+        Map<String, Long> bookCounts = authorRepository.findBookCountsOrderByIdAsc(Limit.unlimited()).stream().collect(Collectors.toMap(AuthorStatsDTO::getAuthorId, AuthorStatsDTO::getBookCount));
+        return authors.stream().map(author -> authorMapper.toAuthorDTOWithoutBooks(author, bookCounts.getOrDefault(author.getId(), 0L))).collect(Collectors.toList());
     }
 
+    // Only the representation without books is cached; it is the default one and stays small for prolific authors. The
+    // version is cached with the author it was read with, so a response never pairs a new ETag with an old body
     @Override
-    public List<AuthorDTO> getAllAuthors() {
-        return authorRepository.findAll().stream().map(authorMapper::toAuthorDTO).collect(Collectors.toList());
+    @Coalesced("author")
+    @Cacheable(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#id", condition = "!#includeBooks")
+    @Transactional(readOnly = true)
+    public VersionedDTO<AuthorDTO> getAuthorById(String id, boolean includeBooks) {
+        if (includeBooks) {
+            Author author = authorRepository.findWithBooksById(id).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
+            return new VersionedDTO<>(authorMapper.toAuthorDTO(author), ResourceVersions.of(author));
+        }
+        Author author = authorRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
+        return new VersionedDTO<>(authorMapper.toAuthorDTOWithoutBooks(author, bookRepository.countByAuthorId(id)), ResourceVersions.of(author));
+    }
+
+    // Mapped like getAuthorById without books: each author comes with its book count, counted per chunk of authors
+    @Override
+    @Transactional(readOnly = true)
+    public BatchDTO<AuthorDTO> getAuthorsByIds(List<String> ids) {
+        return BatchLookups.lookUp(ids, authorRepository::findAllById, Author::getId, authors -> {
+            Map<String, Long> bookCounts = BatchLookups.inChunks(authors.stream().map(Author::getId).toList(), authorRepository::findBookCountsByIdIn).stream().collect(Collectors.toMap(AuthorStatsDTO::getAuthorId, AuthorStatsDTO::getBookCount));
+            return authors.stream().map(author -> authorMapper.toAuthorDTOWithoutBooks(author, bookCounts.getOrDefault(author.getId(), 0L))).collect(Collectors.toList());
+        });
     }
 
     @Override
-    public AuthorDTO getAuthorById(String id) {
+    @Transactional(readOnly = true)
+    public AuthorDetailDTO getAuthorDetails(String id, String booksPageToken, int booksSize) {
         Author author = authorRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
-        return authorMapper.toAuthorDTO(author);
+
+        AuthorDetailDTO authorDetail = authorMapper.toAuthorDetailDTO(author);
+        authorDetail.setBookCount(bookRepository.countByAuthorId(id));
+        authorDetail.setBooks(findBooksPage(id, booksPageToken, booksSize));
+        return authorDetail;
     }
 
     @Override
-    public boolean doesAuthorExist(String name) {
-        return authorRepository.findByName(name).isPresent();
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummaryDTO> getAuthorBooks(String id, String pageToken, int size) {
+        CursorPageDTO<BookSummaryDTO> page = findBooksPage(id, pageToken, size);
+        // An empty page is the only case that needs the author looked up
+        if (page.getContent().isEmpty() && !authorRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Author not found");
+        }
+        return page;
+    }
+
+    // Keyset page over the (author_id, id) index
+    private CursorPageDTO<BookSummaryDTO> findBooksPage(String authorId, String pageToken, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Book> books = pageToken == null
+                ? bookRepository.findByAuthorIdOrderByIdAsc(authorId, limit)
+                : bookRepository.findByAuthorIdAndIdGreaterThanOrderByIdAsc(authorId, PageTokens.decode(pageToken), limit);
+        return PageTokens.toPage(books, size, Book::getId, bookMapper::toBookSummaryDTOs);
     }
 }
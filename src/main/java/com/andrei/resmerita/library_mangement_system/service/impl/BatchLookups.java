@@ -0,0 +1,52 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
+import com.andrei.resmerita.library_mangement_system.model.UuidStringJavaType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Looks up the entities of a multi-get with IN queries of at most {@link #CHUNK_SIZE} ids and puts them back in request
+ * order, listing the ids that matched nothing instead of failing on them.
+ */
+final class BatchLookups {
+
+    // Bind parameters per statement stay well below the limits of the drivers
+    static final int CHUNK_SIZE = 500;
+
+    private BatchLookups() {
+    }
+
+    static <E, D> BatchDTO<D> lookUp(List<String> ids, Function<List<String>, List<E>> finder, Function<E, String> idOf, Function<List<E>, List<D>> mapper) {
+        List<String> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        // Matched as UUIDs, like a single lookup: an id sent in upper case still finds its row
+        Map<UUID, E> found = new HashMap<>();
+        inChunks(distinctIds, finder).forEach(entity -> found.put(UuidStringJavaType.toUuid(idOf.apply(entity)), entity));
+
+        List<E> entities = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : distinctIds) {
+            E entity = found.get(UuidStringJavaType.toUuid(id));
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                entities.add(entity);
+            }
+        }
+        return new BatchDTO<>(mapper.apply(entities), missingIds);
+    }
+
+    static <T> List<T> inChunks(List<String> ids, Function<List<String>, List<T>> finder) {
+        List<T> results = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+            results.addAll(finder.apply(ids.subList(start, Math.min(start + CHUNK_SIZE, ids.size()))));
+        }
+        return results;
+    }
+}
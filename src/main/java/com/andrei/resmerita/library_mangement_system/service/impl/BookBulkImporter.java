@@ -0,0 +1,156 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts large numbers of books in chunks: every chunk resolves its ISBN duplicates and author names with one set-based
+ * query each, and writes its books in a single transaction so Hibernate can send the inserts as JDBC batches. A chunk
+ * that loses a race for an ISBN to a concurrent insert is rolled back and imported again, so the rows of that chunk are
+ * reported as duplicates while the chunks committed before it stay reported as created.
+ */
+@Component
+public class BookBulkImporter {
+
+    // A chunk is only retried when an ISBN it checked was inserted concurrently, so a few attempts are plenty
+    private static final int CHUNK_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final BookSearchIndex bookSearchIndex;
+    private final ChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public BookBulkImporter(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper, EntityManager entityManager, Validator validator, BookSearchIndex bookSearchIndex, ChangeLog changeLog, PlatformTransactionManager transactionManager, @Value("${library.bulk.chunk-size:1000}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookMapper = bookMapper;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.bookSearchIndex = bookSearchIndex;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BulkResultDTO> importBooks(List<BookDTO> bookDTOs) {
+        // Inside a caller's transaction a failed chunk has already doomed that transaction, so it cannot be retried
+        boolean ownTransactions = !TransactionSynchronizationManager.isActualTransactionActive();
+        List<BulkResultDTO> results = new ArrayList<>(bookDTOs.size());
+        for (int offset = 0; offset < bookDTOs.size(); offset += chunkSize) {
+            List<BookDTO> chunk = bookDTOs.subList(offset, Math.min(offset + chunkSize, bookDTOs.size()));
+            results.addAll(importChunkInTransaction(chunk, offset, ownTransactions ? CHUNK_ATTEMPTS : 1));
+        }
+        return results;
+    }
+
+    private List<BulkResultDTO> importChunkInTransaction(List<BookDTO> chunk, int offset, int attempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> importChunk(chunk, offset, status.isNewTransaction()));
+            } catch (DataIntegrityViolationException exception) {
+                // The next attempt checks the chunk's ISBNs again and finds the concurrently inserted ones
+                if (attempt == attempts) {
+                    throw exception;
+                }
+            }
+        }
+    }
+
+    private List<BulkResultDTO> importChunk(List<BookDTO> chunk, int offset, boolean ownTransaction) {
+        Set<String> isbns = chunk.stream().map(BookDTO::getIsbn).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> authorNames = chunk.stream().map(BookDTO::getAuthor).filter(Objects::nonNull).map(AuthorDTO::getName).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        // ISBNs of rows accepted earlier in the same chunk are taken as well
+        Set<String> takenIsbns = new HashSet<>(isbns.isEmpty() ? Set.of() : bookRepository.findExistingIsbns(isbns));
+        Map<String, Author> authorsByName = authorNames.isEmpty() ? Map.of() : authorRepository.findByNameIn(authorNames).stream().collect(Collectors.toMap(Author::getName, Function.identity(), (first, second) -> first));
+
+        List<BulkResultDTO> results = new ArrayList<>(chunk.size());
+        List<Book> books = new ArrayList<>();
+        List<BulkResultDTO> createdResults = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BookDTO bookDTO = chunk.get(i);
+            BulkResultDTO result = new BulkResultDTO(offset + i, bookDTO.getIsbn(), null, null, null);
+            results.add(result);
+
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+            if (!violations.isEmpty()) {
+                result.setStatus(BulkResultDTO.Status.INVALID);
+                result.setMessage(violations.stream().map(violation -> violation.getPropertyPath() + ": " + violation.getMessage()).sorted().collect(Collectors.joining(", ")));
+                continue;
+            }
+            if (takenIsbns.contains(bookDTO.getIsbn())) {
+                result.setStatus(BulkResultDTO.Status.DUPLICATE);
+                result.setMessage("A book with this ISBN already exists.");
+                continue;
+            }
+            Author author = bookDTO.getAuthor() == null ? null : authorsByName.get(bookDTO.getAuthor().getName());
+            if (author == null) {
+                result.setStatus(BulkResultDTO.Status.AUTHOR_NOT_FOUND);
+                result.setMessage("Author not found");
+                continue;
+            }
+
+            takenIsbns.add(bookDTO.getIsbn());
+            Book book = bookMapper.toBook(bookDTO);
+            book.setAuthor(author);
+            books.add(book);
+            createdResults.add(result);
+        }
+
+        bookRepository.saveAll(books);
+        if (!books.isEmpty()) {
+            Set<String> authorIds = books.stream().map(book -> book.getAuthor().getId()).collect(Collectors.toSet());
+            // The chunk's change events commit with its books
+            changeLog.record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED, books.stream().map(Book::getId).toList());
+            changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, authorIds);
+            // Send the batched inserts now and drop the chunk from the persistence context so memory stays flat;
+            // a caller's transaction keeps its persistence context untouched. Flushed through the repository so a
+            // concurrently inserted ISBN surfaces as a DataIntegrityViolationException
+            bookRepository.flush();
+            authorRepository.touch(authorIds, Instant.now());
+        }
+        books.forEach(bookSearchIndex::index);
+        if (ownTransaction) {
+            entityManager.clear();
+        }
+
+        for (int i = 0; i < books.size(); i++) {
+            createdResults.get(i).setStatus(BulkResultDTO.Status.CREATED);
+            createdResults.get(i).setId(books.get(i).getId());
+        }
+        return results;
+    }
+}
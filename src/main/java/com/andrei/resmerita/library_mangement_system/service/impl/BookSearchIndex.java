@@ -0,0 +1,491 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book titles, descriptions and author names.
+ * <p>
+ * Every indexed book gets a small integer slot, and every term keeps the sorted slots of the books containing it
+ * together with the field-weighted term frequency in primitive arrays. Terms are kept sorted so that the last word of a query can be
+ * matched as a prefix. Results are ranked with BM25, accumulating scores in pooled arrays indexed by slot so a
+ * query allocates next to nothing.
+ * <p>
+ * The index is built from the database once the application is ready and then kept up to date by the services, which
+ * hand over every book they write; changes made inside a transaction are applied only after it commits. Changes that
+ * commit while the index is being rebuilt are held back and applied once the rebuild is done, since the rebuild may
+ * have read those books as they were before.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // A short prefix such as "a" would otherwise expand to a large part of the dictionary
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_QUERY_WORDS = 16;
+    // Every page ranks all the hits before it again, so results are only paged this deep
+    static final int MAX_OFFSET = 10_000;
+    // Below this ratio of candidates to postings it is cheaper to look every candidate up than to scan the whole list
+    private static final int PROBE_RATIO = 16;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // Searches share the read lock; writes are rare compared to searches and take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    // Renaming an author rewrites only their books instead of scanning every slot under the write lock
+    private final Map<String, Set<Integer>> slotsByAuthorId = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private IndexedBook[] books = new IndexedBook[1024];
+    private int[] lengths = new int[1024];
+    private int slotCount;
+    private long totalLength;
+    // Not null while a rebuild runs; guarded by the write lock
+    private List<Runnable> pendingChanges;
+
+    // Each accumulator holds arrays as large as the index, so only about one per core is kept; a query finding none
+    // free, which only happens with more concurrent searches than cores, allocates a temporary one
+    private final BlockingQueue<Accumulator> accumulators = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Reads every book from the database into the index. Requests, the write-behind writer and the change relay already
+     * run at this point, so changes committing meanwhile are queued and applied on top of the books read here; otherwise
+     * a book read before it was deleted or updated would come back in its old state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        write(() -> pendingChanges = new ArrayList<>());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Book> stream = bookRepository.streamAllByOrderByIdAsc()) {
+                    stream.forEach(book -> {
+                        IndexedBook indexedBook = IndexedBook.of(book);
+                        write(() -> insert(indexedBook));
+                        entityManager.detach(book);
+                    });
+                }
+            });
+        } finally {
+            write(() -> {
+                pendingChanges.forEach(Runnable::run);
+                pendingChanges = null;
+            });
+        }
+    }
+
+    /**
+     * Adds or replaces the given book. The entity is read right away, so it may be detached before the change is applied.
+     */
+    public void index(Book book) {
+        IndexedBook indexedBook = IndexedBook.of(book);
+        apply(() -> insert(indexedBook));
+    }
+
+    public void remove(String bookId) {
+        apply(() -> delete(bookId));
+    }
+
+    public void renameAuthor(String authorId, String authorName) {
+        apply(() -> {
+            Set<Integer> slots = slotsByAuthorId.get(authorId);
+            if (slots == null) {
+                return;
+            }
+            // Reinserting a book frees its slot and takes it again, so iterate over a copy
+            for (int slot : List.copyOf(slots)) {
+                insert(books[slot].withAuthorName(authorName));
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the books matching every word of the query, best match first. The last word also matches as a prefix, so
+     * results narrow down while the user is still typing.
+     */
+    public List<BookSummaryDTO> search(String query, int offset, int limit) {
+        List<String> words = tokenize(query).stream().distinct().limit(MAX_QUERY_WORDS).toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<TermMatch>> matches = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                List<TermMatch> wordMatches = match(words.get(i), i == words.size() - 1);
+                if (wordMatches.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(wordMatches);
+            }
+            // The rarest word decides the candidates; the other words can only narrow them down
+            matches.sort(Comparator.comparingLong(BookSearchIndex::postingCount));
+
+            Accumulator accumulator = Objects.requireNonNullElseGet(accumulators.poll(), Accumulator::new);
+            accumulator.ensureCapacity(slotCount);
+            try {
+                float averageLength = (float) totalLength / Math.max(slotsById.size(), 1);
+                for (int word = 0; word < matches.size(); word++) {
+                    for (TermMatch match : matches.get(word)) {
+                        accumulate(accumulator, match, word, averageLength);
+                    }
+                }
+                return topHits(accumulator, matches.size(), (int) Math.min((long) offset + limit, Integer.MAX_VALUE)).stream()
+                        .skip(offset)
+                        .map(slot -> books[slot].toSummary())
+                        .toList();
+            } finally {
+                accumulator.reset();
+                accumulators.offer(accumulator);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TermMatch> match(String word, boolean prefix) {
+        List<TermMatch> matches = new ArrayList<>();
+        PostingList exact = postings.get(word);
+        if (exact != null) {
+            matches.add(new TermMatch(exact, idf(exact.size)));
+        }
+        if (prefix) {
+            postings.subMap(word, false, word + Character.MAX_VALUE, false).values().stream()
+                    .limit(MAX_PREFIX_EXPANSIONS)
+                    .forEach(termPostings -> matches.add(new TermMatch(termPostings, idf(termPostings.size) * PREFIX_BOOST)));
+        }
+        return matches;
+    }
+
+    /**
+     * Adds the score of one term to every book that matched all previous words. A book counts as matching a word once,
+     * even if several prefix expansions of that word hit it.
+     */
+    private void accumulate(Accumulator accumulator, TermMatch match, int word, float averageLength) {
+        PostingList list = match.postings();
+        IntList candidates = accumulator.candidates;
+        if (word > 0 && (long) candidates.size * PROBE_RATIO < list.size) {
+            for (int c = 0; c < candidates.size; c++) {
+                int slot = candidates.values[c];
+                int matchedWords = accumulator.matchedWords[slot];
+                if (matchedWords == word || matchedWords == word + 1) {
+                    int i = Arrays.binarySearch(list.slots, 0, list.size, slot);
+                    if (i >= 0) {
+                        score(accumulator, match, list.frequencies[i], slot, word, averageLength);
+                    }
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < list.size; i++) {
+            int slot = list.slots[i];
+            int matchedWords = accumulator.matchedWords[slot];
+            if (matchedWords != word && matchedWords != word + 1) {
+                continue;
+            }
+            if (word == 0 && matchedWords == 0) {
+                candidates.add(slot);
+            }
+            score(accumulator, match, list.frequencies[i], slot, word, averageLength);
+        }
+    }
+
+    private void score(Accumulator accumulator, TermMatch match, float frequency, int slot, int word, float averageLength) {
+        float normalization = K1 * (1 - B + B * lengths[slot] / averageLength);
+        accumulator.scores[slot] += match.weight() * frequency * (K1 + 1) / (frequency + normalization);
+        accumulator.matchedWords[slot] = (byte) (word + 1);
+    }
+
+    private List<Integer> topHits(Accumulator accumulator, int wordCount, int count) {
+        float[] scores = accumulator.scores;
+        Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(slot -> scores[slot]).reversed().thenComparing(slot -> books[slot].id());
+        // Keep only the best books in a bounded heap whose head is the weakest one kept so far, sized by what can match
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(count, accumulator.candidates.size) + 1, ranking.reversed());
+        accumulator.candidates.forEach(slot -> {
+            if (accumulator.matchedWords[slot] != wordCount) {
+                return;
+            }
+            if (heap.size() < count) {
+                heap.offer(slot);
+            } else if (scores[slot] >= scores[heap.peek()] && ranking.compare(slot, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(slot);
+            }
+        });
+        List<Integer> hits = new ArrayList<>(heap);
+        hits.sort(ranking);
+        return hits;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (slotsById.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static long postingCount(List<TermMatch> matches) {
+        return matches.stream().mapToLong(match -> match.postings().size).sum();
+    }
+
+    private void apply(Runnable change) {
+        afterCommit(() -> write(() -> {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            } else {
+                change.run();
+            }
+        }));
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(IndexedBook book) {
+        delete(book.id());
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot == books.length) {
+            books = Arrays.copyOf(books, books.length * 2);
+            lengths = Arrays.copyOf(lengths, lengths.length * 2);
+        }
+        books[slot] = book;
+        lengths[slot] = book.length();
+        slotsById.put(book.id(), slot);
+        if (book.authorId() != null) {
+            slotsByAuthorId.computeIfAbsent(book.authorId(), authorId -> new HashSet<>()).add(slot);
+        }
+        for (int i = 0; i < book.terms().length; i++) {
+            postings.computeIfAbsent(book.terms()[i], term -> new PostingList()).add(slot, book.frequencies()[i]);
+        }
+        totalLength += book.length();
+    }
+
+    private void delete(String bookId) {
+        Integer slot = slotsById.remove(bookId);
+        if (slot == null) {
+            return;
+        }
+        IndexedBook previous = books[slot];
+        for (String term : previous.terms()) {
+            PostingList list = postings.get(term);
+            list.remove(slot);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        if (previous.authorId() != null) {
+            Set<Integer> authorSlots = slotsByAuthorId.get(previous.authorId());
+            authorSlots.remove(slot);
+            if (authorSlots.isEmpty()) {
+                slotsByAuthorId.remove(previous.authorId());
+            }
+        }
+        books[slot] = null;
+        freeSlots.push(slot);
+        totalLength -= previous.length();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return NON_WORD.splitAsStream(folded).filter(token -> !token.isEmpty()).toList();
+    }
+
+    /**
+     * Slots of the books containing one term in ascending order, with the weighted frequency of the term in each. New
+     * books mostly get the highest slot so far, which makes adding them an append.
+     */
+    private static final class PostingList {
+
+        private int[] slots = new int[4];
+        private short[] frequencies = new short[4];
+        private int size;
+
+        void add(int slot, short frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int position = size == 0 || slots[size - 1] < slot ? size : -Arrays.binarySearch(slots, 0, size, slot) - 1;
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            slots[position] = slot;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+                System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Scratch space for one query at a time; only the slots listed in {@code candidates} are ever touched, so resetting
+     * costs as much as the query itself rather than the size of the index.
+     */
+    private static final class Accumulator {
+
+        private float[] scores = new float[0];
+        private byte[] matchedWords = new byte[0];
+        private final IntList candidates = new IntList();
+
+        void ensureCapacity(int slotCount) {
+            if (scores.length < slotCount) {
+                scores = new float[slotCount];
+                matchedWords = new byte[slotCount];
+            }
+        }
+
+        void reset() {
+            candidates.forEach(slot -> {
+                scores[slot] = 0;
+                matchedWords[slot] = 0;
+            });
+            candidates.clear();
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private record TermMatch(PostingList postings, float weight) {
+    }
+
+    private record IndexedBook(String id, String title, String isbn, String description, String authorId, String authorName, String[] terms, short[] frequencies, int length) {
+
+        static IndexedBook of(Book book) {
+            Author author = book.getAuthor();
+            return of(book.getId(), book.getTitle(), book.getIsbn(), book.getDescription(), author == null ? null : author.getId(), author == null ? null : author.getName());
+        }
+
+        static IndexedBook of(String id, String title, String isbn, String description, String authorId, String authorName) {
+            Map<String, Integer> weightedFrequencies = new LinkedHashMap<>();
+            int length = addTerms(weightedFrequencies, title, TITLE_WEIGHT) + addTerms(weightedFrequencies, authorName, AUTHOR_WEIGHT) + addTerms(weightedFrequencies, description, DESCRIPTION_WEIGHT);
+            String[] terms = weightedFrequencies.keySet().toArray(String[]::new);
+            short[] frequencies = new short[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                frequencies[i] = (short) Math.min(weightedFrequencies.get(terms[i]), Short.MAX_VALUE);
+            }
+            return new IndexedBook(id, title, isbn, description, authorId, authorName, terms, frequencies, length);
+        }
+
+        private static int addTerms(Map<String, Integer> terms, String text, int weight) {
+            List<String> tokens = tokenize(text);
+            tokens.forEach(token -> terms.merge(token, weight, Integer::sum));
+            return tokens.size();
+        }
+
+        IndexedBook withAuthorName(String name) {
+            return of(id, title, isbn, description, authorId, name);
+        }
+
+        BookSummaryDTO toSummary() {
+            return new BookSummaryDTO(id, title, isbn, authorId, authorName);
+        }
+    }
+}
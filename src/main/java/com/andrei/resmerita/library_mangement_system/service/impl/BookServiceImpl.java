@@ -1,52 +1,96 @@
 package com.andrei.resmerita.library_mangement_system.service.impl;
 
+import com.andrei.resmerita.library_mangement_system.config.CacheConfig;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
-import com.andrei.resmerita.library_mangement_system.exception.BookAlreadyExistException;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
 import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
+import com.andrei.resmerita.library_mangement_system.mapper.CycleAvoidingMappingContext;
 import com.andrei.resmerita.library_mangement_system.model.Author;
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
 import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
 import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
 import com.andrei.resmerita.library_mangement_system.service.BookService;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "library.service")
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+    private final BookBulkImporter bookBulkImporter;
+    private final BookSearchIndex bookSearchIndex;
+    private final ChangeLog changeLog;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper) {
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper, EntityManager entityManager, BookBulkImporter bookBulkImporter, BookSearchIndex bookSearchIndex, ChangeLog changeLog) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.bookMapper = bookMapper;
+        this.entityManager = entityManager;
+        this.bookBulkImporter = bookBulkImporter;
+        this.bookSearchIndex = bookSearchIndex;
+        this.changeLog = changeLog;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, allEntries = true)
+    @Transactional
     public BookDTO saveBook(BookDTO bookDTO) {
-        if (isBookAlreadyCreated(bookDTO.getIsbn())) {
-            throw new BookAlreadyExistException("A book with this ISBN already exists.");
-        }
-
+        // Duplicate ISBNs are rejected by the uk_book_isbn constraint, see GlobalExceptionHandler
         Author author = authorRepository.findByName(bookDTO.getAuthor().getName()).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
 
         Book book = bookMapper.toBook(bookDTO);
         book.setAuthor(author);
 
-        Book savedBook = bookRepository.save(book);
+        Book savedBook = bookRepository.saveAndFlush(book);
+        authorRepository.touch(Collections.singletonList(author.getId()), Instant.now());
+        changeLog.record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED, Collections.singletonList(savedBook.getId()));
+        changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, Collections.singletonList(author.getId()));
+        bookSearchIndex.index(savedBook);
         return bookMapper.toBookDTO(savedBook);
     }
 
+    // Not transactional: the importer commits every chunk on its own so a large import does not hold one long transaction
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, allEntries = true)
+    public List<BulkResultDTO> saveBooks(List<BookDTO> bookDTOs) {
+        return bookBulkImporter.importBooks(bookDTOs);
+    }
+
     @Override
-    public BookDTO updateBook(String id, BookDTO bookDTO) {
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id"), @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, allEntries = true)})
+    @Transactional
+    public BookDTO updateBook(String id, BookDTO bookDTO, String ifMatch) {
         Book book = bookRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+        ResourceVersions.checkIfMatch(ifMatch, ResourceVersions.of(book));
+        String previousAuthorId = book.getAuthor().getId();
         Author author = authorRepository.findByName(bookDTO.getAuthor().getName()).orElseThrow(() -> new ResourceNotFoundException("Author not found"));
 
         book.setTitle(bookDTO.getTitle());
@@ -54,28 +98,97 @@ public class BookServiceImpl implements BookService {
         book.setIsbn(bookDTO.getIsbn());
         book.setAuthor(author);
 
+        // A concurrent update between the If-Match check and this write fails on the version column
         Book updatedBook = bookRepository.save(book);
+        List<String> authorIds = Stream.of(previousAuthorId, author.getId()).distinct().toList();
+        authorRepository.touch(authorIds, Instant.now());
+        changeLog.record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.UPDATED, Collections.singletonList(updatedBook.getId()));
+        changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, authorIds);
+        bookSearchIndex.index(updatedBook);
         return bookMapper.toBookDTO(updatedBook);
     }
 
     @Override
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id"), @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, allEntries = true)})
+    @Transactional
     public void deleteBook(String id) {
-        bookRepository.deleteById(id);
+        // Deleting a book that does not exist does nothing and records no change
+        bookRepository.findById(id).ifPresent(book -> {
+            String authorId = book.getAuthor().getId();
+            authorRepository.touch(Collections.singletonList(authorId), Instant.now());
+            bookRepository.delete(book);
+            changeLog.record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.DELETED, Collections.singletonList(book.getId()));
+            changeLog.record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, Collections.singletonList(authorId));
+            bookSearchIndex.remove(id);
+        });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream().map(bookMapper::toBookDTO).collect(Collectors.toList());
+        return bookMapper.toBookDTOs(bookRepository.findAll(), new CycleAvoidingMappingContext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookDTO> getBooksPage(String pageToken, int size) {
+        return PageTokens.toPage(findBooksPage(pageToken, size), size, Book::getId, books -> bookMapper.toBookDTOs(books, new CycleAvoidingMappingContext()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummaryDTO> getBookSummariesPage(String pageToken, int size) {
+        return PageTokens.toPage(findBooksPage(pageToken, size), size, Book::getId, bookMapper::toBookSummaryDTOs);
+    }
+
+    private List<Book> findBooksPage(String pageToken, int size) {
+        Limit limit = Limit.of(size + 1);
+        return pageToken == null
+                ? bookRepository.findAllByOrderByIdAsc(limit)
+                : bookRepository.findByIdGreaterThanOrderByIdAsc(PageTokens.decode(pageToken), limit);
+    }
+
+    // Keyset-scrolled by whatever sort the client chose: the page token carries the sort keys of the last row
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummaryDTO> queryBooks(BookFilterDTO filter, List<String> sort, String pageToken, int size) {
+        Sort order = BookSpecifications.sort(sort);
+        ScrollPosition position = PageTokens.decodeScrollPosition(pageToken, order, BookSpecifications::parseSortKey);
+        Window<Book> window = bookRepository.findBy(BookSpecifications.matching(filter), query -> query.sortBy(order).limit(size).scroll(position));
+        return PageTokens.toPage(window, order, bookMapper::toBookSummaryDTOs);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDTO> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                consumer.accept(bookMapper.toBookDTO(book));
+                // Keep the persistence context from growing with every row that has already been written out
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    @Override
+    public CursorPageDTO<BookSummaryDTO> searchBooks(String query, String pageToken, int size) {
+        int offset = pageToken == null ? 0 : PageTokens.decodeOffset(pageToken, BookSearchIndex.MAX_OFFSET);
+        return PageTokens.toOffsetPage(bookSearchIndex.search(query, offset, size + 1), offset, size, BookSearchIndex.MAX_OFFSET);
     }
 
+    // The version is cached with the book it was read with, so a response never pairs a new ETag with an old body
     @Override
-    public BookDTO getBookById(String id) {
+    @Coalesced("book")
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    @Transactional(readOnly = true)
+    public VersionedDTO<BookDTO> getBookById(String id) {
         Book book = bookRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-        return bookMapper.toBookDTO(book);
+        return new VersionedDTO<>(bookMapper.toBookDTO(book), ResourceVersions.of(book));
     }
 
     @Override
-    public boolean isBookAlreadyCreated(String isbn) {
-        return bookRepository.findByIsbn(isbn).isPresent();
+    @Transactional(readOnly = true)
+    public BatchDTO<BookDTO> getBooksByIds(List<String> ids) {
+        return BatchLookups.lookUp(ids, bookRepository::findByIdIn, Book::getId, books -> bookMapper.toBookDTOs(books, new CycleAvoidingMappingContext()));
     }
 }
\ No newline at end of file
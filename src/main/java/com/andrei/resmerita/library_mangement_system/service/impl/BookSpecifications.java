@@ -0,0 +1,88 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidSortException;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Translates a book query into a JPA specification and a sort, so filtering and ordering happen in SQL. Title and ISBN
+ * filters are prefix matches, which can use the indexes on those columns, see V3__book_query_indexes.sql.
+ */
+final class BookSpecifications {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "title", "isbn", "createdAt");
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    static Specification<Book> matching(BookFilterDTO filter) {
+        return (root, query, criteriaBuilder) -> {
+            // The page shows the author of every book, so it is fetched in the same statement; a count has nothing to fetch
+            Path<Author> author = Long.class.equals(query.getResultType()) ? root.get("author") : (Join<Book, Author>) root.<Book, Author>fetch("author");
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(filter.getAuthorId())) {
+                predicates.add(criteriaBuilder.equal(root.get("author").get("id"), filter.getAuthorId()));
+            }
+            if (StringUtils.hasText(filter.getAuthorName())) {
+                predicates.add(criteriaBuilder.equal(author.get("name"), filter.getAuthorName()));
+            }
+            if (StringUtils.hasText(filter.getTitlePrefix())) {
+                predicates.add(criteriaBuilder.like(root.get("title"), likePrefix(filter.getTitlePrefix()), LIKE_ESCAPE));
+            }
+            if (StringUtils.hasText(filter.getIsbnPrefix())) {
+                predicates.add(criteriaBuilder.like(root.get("isbn"), likePrefix(filter.getIsbnPrefix()), LIKE_ESCAPE));
+            }
+            if (filter.getCreatedAfter() != null) {
+                predicates.add(criteriaBuilder.greaterThan(root.get("createdAt"), filter.getCreatedAfter()));
+            }
+            return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Parses sort keys such as {@code title} or {@code -createdAt} (descending) in order of precedence. The id is always
+     * the last key, so every row has distinct sort keys to continue a keyset scroll after; it follows the direction of
+     * the first key, so a sort by a single property reads its (property, id) index forwards or backwards.
+     */
+    static Sort sort(List<String> keys) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String key : keys) {
+            boolean descending = key.startsWith("-");
+            String property = descending ? key.substring(1) : key;
+            if (!SORTABLE_PROPERTIES.contains(property)) {
+                throw new InvalidSortException("Books cannot be sorted by '" + key + "', use one of " + String.join(", ", SORTABLE_PROPERTIES.stream().sorted().toList()) + ", prefixed with - for descending order.");
+            }
+            orders.add(descending ? Sort.Order.desc(property) : Sort.Order.asc(property));
+        }
+        if (orders.isEmpty()) {
+            orders.add(Sort.Order.asc("id"));
+        } else if (orders.stream().noneMatch(order -> order.getProperty().equals("id"))) {
+            orders.add(new Sort.Order(orders.get(0).getDirection(), "id"));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Parses the value of a sort key read back from a page token.
+     */
+    static Object parseSortKey(String property, String value) {
+        return "createdAt".equals(property) ? Instant.parse(value) : value;
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,235 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ChangeOffsetExpiredException;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import com.andrei.resmerita.library_mangement_system.repository.ChangeEventRepository;
+import com.andrei.resmerita.library_mangement_system.service.ChangeFeedService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes the change events of the outbox (see {@link ChangeLog}) and streams them to subscribers.
+ * <p>
+ * A single relay thread takes the committed events that have no offset yet, oldest id first and up to the batch size,
+ * and numbers them in one transaction. Offsets follow the order in which the relay sees the events, not their ids, which
+ * were handed out before the writes committed: a consumer that resumes after an offset never skips a change that
+ * committed late with a lower id. The transaction first locks the row of change_feed_relay and then continues after the
+ * last offset in the table, so the relays of several instances sharing a database, e.g. during a rolling deploy, take
+ * turns, and a relay whose batch failed picks up where the table stands instead of retrying offsets already taken.
+ * <p>
+ * Subscribers read the published events after their own offset from the table, a batch at a time, on a small pool of
+ * delivery threads. A subscriber that resumes from an old offset catches up the same way a live one is kept up to date,
+ * and a lagging one never holds back the relay. Sending to a client is a blocking write, though: a client that stops
+ * reading keeps a delivery thread until the servlet container times the write out, and as many stalled clients as there
+ * are delivery threads delay the delivery to all others meanwhile. Published events are deleted after the retention
+ * period, except the last one, so offsets continue from it after a restart.
+ */
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedServiceImpl.class);
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+
+    private final ChangeEventRepository changeEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final boolean relayEnabled;
+    private final ExecutorService delivery;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final DistributionSummary batchSizes;
+
+    // Last offset handed out, and the last one whose event was deleted
+    private volatile long publishedOffset;
+    private volatile long expiredOffset;
+    private Instant nextCleanup = Instant.MIN;
+
+    private volatile boolean running;
+    private Thread relay;
+
+    @Autowired
+    public ChangeFeedServiceImpl(ChangeEventRepository changeEventRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, @Value("${library.changes.batch-size:500}") int batchSize, @Value("${library.changes.poll-interval:200ms}") Duration pollInterval, @Value("${library.changes.retention:7d}") Duration retention, @Value("${library.changes.delivery-threads:4}") int deliveryThreads, @Value("${library.changes.relay.enabled:true}") boolean relayEnabled) {
+        this.changeEventRepository = changeEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.relayEnabled = relayEnabled;
+        this.delivery = Executors.newFixedThreadPool(deliveryThreads, new CustomizableThreadFactory("library-change-delivery-"));
+        Gauge.builder("library.changes.subscribers", subscribers, Set::size).description("Clients following the change feed").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("library.changes.relay.batch.size").description("Change events published together by the relay").register(meterRegistry);
+    }
+
+    @Override
+    public Subscription subscribe(Long after, ChangeListener listener) {
+        long offset = after == null ? publishedOffset : after;
+        if (offset < expiredOffset) {
+            throw new ChangeOffsetExpiredException("Changes after offset " + offset + " are no longer kept, read the catalog again and follow the feed from its current end.");
+        }
+        Subscriber subscriber = new Subscriber(listener, offset);
+        subscribers.add(subscriber);
+        // Added before the first signal, so a batch relayed in between is not missed
+        subscriber.signal();
+        return subscriber;
+    }
+
+    @Override
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            publishedOffset = changeEventRepository.findLastFeedOffset().orElse(0L);
+            expiredOffset = changeEventRepository.findFirstFeedOffset().map(offset -> offset - 1).orElse(publishedOffset);
+        });
+        running = true;
+        relay = new Thread(this::relayUntilStopped, "library-change-relay");
+        relay.start();
+    }
+
+    // Events not relayed yet stay in the outbox and are published after the next start
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(relay);
+        try {
+            relay.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.forEach(Subscriber::cancel);
+        delivery.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Tests that share a database with others leave the relay off
+    @Override
+    public boolean isAutoStartup() {
+        return relayEnabled;
+    }
+
+    private void relayUntilStopped() {
+        while (running) {
+            try {
+                // A full batch means more events are waiting
+                if (relay() < batchSize) {
+                    LockSupport.parkNanos(pollInterval.toNanos());
+                }
+                if (Instant.now().isAfter(nextCleanup)) {
+                    removeExpired();
+                    nextCleanup = Instant.now().plus(CLEANUP_INTERVAL);
+                }
+            } catch (RuntimeException exception) {
+                log.error("Relaying change events failed", exception);
+                LockSupport.parkNanos(pollInterval.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Publishes the next batch of events and returns how many there were.
+     */
+    synchronized int relay() {
+        Batch batch = transactionTemplate.execute(status -> {
+            changeEventRepository.lockRelay();
+            long offset = changeEventRepository.findLastFeedOffset().orElse(0L);
+            List<ChangeEvent> unpublished = changeEventRepository.findByFeedOffsetIsNullOrderByIdAsc(Limit.of(batchSize));
+            for (ChangeEvent event : unpublished) {
+                event.setFeedOffset(++offset);
+            }
+            return new Batch(unpublished.size(), offset);
+        });
+        if (batch.size() > 0) {
+            batchSizes.record(batch.size());
+        }
+        // Only committed offsets are visible to subscribers, including those another instance published
+        if (batch.lastOffset() > publishedOffset) {
+            publishedOffset = batch.lastOffset();
+            subscribers.forEach(Subscriber::signal);
+        }
+        return batch.size();
+    }
+
+    private record Batch(int size, long lastOffset) {
+    }
+
+    synchronized void removeExpired() {
+        transactionTemplate.executeWithoutResult(status -> {
+            changeEventRepository.deletePublishedBefore(Instant.now().minus(retention), publishedOffset);
+            expiredOffset = changeEventRepository.findFirstFeedOffset().map(offset -> offset - 1).orElse(publishedOffset);
+        });
+    }
+
+    private final class Subscriber implements Subscription {
+
+        private final ChangeListener listener;
+        // Signals since the last delivery started; only the first one schedules a delivery
+        private final AtomicInteger signals = new AtomicInteger();
+        private volatile long offset;
+        private volatile boolean cancelled;
+
+        private Subscriber(ChangeListener listener, long offset) {
+            this.listener = listener;
+            this.offset = offset;
+        }
+
+        private void signal() {
+            if (signals.getAndIncrement() == 0) {
+                delivery.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                try {
+                    while (!cancelled && offset < publishedOffset) {
+                        List<ChangeEventDTO> changes = changeEventRepository.findPublishedAfter(offset, Limit.of(batchSize));
+                        if (changes.isEmpty()) {
+                            break;
+                        }
+                        listener.onChanges(changes);
+                        offset = changes.get(changes.size() - 1).getOffset();
+                    }
+                } catch (Exception exception) {
+                    // Usually a client that went away; it resumes from the last offset it received
+                    log.debug("Delivering changes failed", exception);
+                    cancel();
+                    listener.onError(exception);
+                    return;
+                }
+                missed = signals.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+        }
+    }
+}
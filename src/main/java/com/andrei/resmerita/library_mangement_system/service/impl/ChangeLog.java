@@ -0,0 +1,30 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import com.andrei.resmerita.library_mangement_system.repository.ChangeEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Appends change events to the outbox table. It joins the transaction of the write it records, so an event is stored
+ * exactly when the change commits; the relay in {@link ChangeFeedServiceImpl} publishes it afterwards.
+ */
+@Component
+public class ChangeLog {
+
+    private final ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    public ChangeLog(ChangeEventRepository changeEventRepository) {
+        this.changeEventRepository = changeEventRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEvent.ResourceType resourceType, ChangeEvent.Type type, Collection<String> resourceIds) {
+        changeEventRepository.saveAll(resourceIds.stream().map(resourceId -> new ChangeEvent(resourceType, resourceId, type)).toList());
+    }
+}
@@ -0,0 +1,19 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read whose concurrent calls with equal arguments share one execution, see {@link RequestCoalescer}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+
+    /**
+     * Name of the read, used in the metrics.
+     */
+    String value();
+}
@@ -0,0 +1,122 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidPageTokenException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes the last id of a keyset page, the sort keys of the last row of a scrolled window, or the offset of a ranked
+ * result page into an opaque continuation token and back.
+ */
+final class PageTokens {
+
+    private PageTokens() {
+    }
+
+    static String encode(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String pageToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidPageTokenException("Invalid page token.");
+        }
+    }
+
+    /**
+     * Decodes an offset no greater than {@code maxOffset}; the token comes from the client, so a larger one is rejected
+     * rather than read that deep.
+     */
+    static int decodeOffset(String pageToken, int maxOffset) {
+        try {
+            int offset = Integer.parseInt(decode(pageToken));
+            if (offset < 0 || offset > maxOffset) {
+                throw new InvalidPageTokenException("Invalid page token.");
+            }
+            return offset;
+        } catch (NumberFormatException exception) {
+            throw new InvalidPageTokenException("Invalid page token.");
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only signals that another page
+     * follows, which saves a count query.
+     */
+    static <E, T> CursorPageDTO<T> toPage(List<E> rows, int size, Function<E, String> idExtractor, Function<List<E>, List<T>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextPageToken = hasNext ? encode(idExtractor.apply(page.get(page.size() - 1))) : null;
+        return new CursorPageDTO<>(mapper.apply(page), nextPageToken);
+    }
+
+    /**
+     * Builds a page of ranked rows fetched with a limit of {@code size + 1}, continuing at the next offset unless it lies
+     * beyond {@code maxOffset}.
+     */
+    static <T> CursorPageDTO<T> toOffsetPage(List<T> rows, int offset, int size, int maxOffset) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+        return new CursorPageDTO<>(page, hasNext && offset + size <= maxOffset ? encode(String.valueOf(offset + size)) : null);
+    }
+
+    /**
+     * Decodes the sort keys written by {@link #toPage(Window, Sort, Function)}, so the next window starts right after
+     * the last row of the previous one instead of skipping an offset; rows added or removed before it shift nothing.
+     * The token has to name the properties of {@code sort} in order, and {@code keyParser} turns each value back into
+     * the type of its property.
+     */
+    static ScrollPosition decodeScrollPosition(String pageToken, Sort sort, BiFunction<String, String, Object> keyParser) {
+        if (pageToken == null) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts = decode(pageToken).split("\\.", -1);
+        List<Sort.Order> orders = sort.toList();
+        if (parts.length != orders.size()) {
+            throw new InvalidPageTokenException("Invalid page token.");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 0; i < parts.length; i++) {
+            String property = orders.get(i).getProperty();
+            String key = decode(parts[i]);
+            if (!key.startsWith(property + "=")) {
+                throw new InvalidPageTokenException("Invalid page token.");
+            }
+            try {
+                keys.put(property, keyParser.apply(property, key.substring(property.length() + 1)));
+            } catch (DateTimeException exception) {
+                throw new InvalidPageTokenException("Invalid page token.");
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Builds a page from a keyset-scrolled window, continuing after the sort keys of its last row.
+     */
+    static <E, T> CursorPageDTO<T> toPage(Window<E> window, Sort sort, Function<List<E>, List<T>> mapper) {
+        String nextPageToken = null;
+        if (window.hasNext()) {
+            Map<String, Object> keys = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+            nextPageToken = encode(sort.stream()
+                    .map(order -> encode(order.getProperty() + "=" + keys.get(order.getProperty())))
+                    .collect(Collectors.joining(".")));
+        }
+        return new CursorPageDTO<>(mapper.apply(window.getContent()), nextPageToken);
+    }
+}
@@ -0,0 +1,43 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.repository.ReactiveCatalogRepository;
+import com.andrei.resmerita.library_mangement_system.service.ReactiveCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveCatalogServiceImpl implements ReactiveCatalogService {
+
+    private final ReactiveCatalogRepository reactiveCatalogRepository;
+
+    @Autowired
+    public ReactiveCatalogServiceImpl(ReactiveCatalogRepository reactiveCatalogRepository) {
+        this.reactiveCatalogRepository = reactiveCatalogRepository;
+    }
+
+    @Override
+    public Flux<BookDTO> getAllBooks() {
+        return reactiveCatalogRepository.findAllBooks();
+    }
+
+    @Override
+    public Mono<BookDTO> getBookById(String id) {
+        return reactiveCatalogRepository.findBookById(id).switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Book not found")));
+    }
+
+    @Override
+    public Flux<AuthorDTO> getAllAuthors(boolean includeBooks) {
+        return includeBooks ? reactiveCatalogRepository.findAllAuthorsWithBooks() : reactiveCatalogRepository.findAllAuthors();
+    }
+
+    @Override
+    public Mono<AuthorDTO> getAuthorById(String id, boolean includeBooks) {
+        Mono<AuthorDTO> author = includeBooks ? reactiveCatalogRepository.findAuthorWithBooksById(id) : reactiveCatalogRepository.findAuthorById(id);
+        return author.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Author not found")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.exception.CoalescedLoadTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lets concurrent calls of a {@link Coalesced} read with equal arguments share one execution: the first caller runs the
+ * read and every caller that arrives while it is in flight waits for its result or exception instead of running its own
+ * query. Nothing is held while the read runs besides a future in a concurrent map, and the entry is removed as soon as
+ * the read finishes, so results are not cached here; the service caches still do that.
+ * <p>
+ * Ordered before the cache and transaction interceptors, so waiting callers neither open a transaction nor check out a
+ * connection. A caller waits at most {@code library.coalescing.timeout} and then gets {@code 503} rather than starting
+ * another query against a database that is already slow. Every call is counted in {@code library.coalescing.calls},
+ * tagged with the read and whether it ran the read ({@code leader}), shared it ({@code collapsed}) or gave up waiting
+ * ({@code timeout}).
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RequestCoalescer {
+
+    private final ConcurrentMap<Call, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMillis;
+
+    @Autowired
+    public RequestCoalescer(MeterRegistry meterRegistry, @Value("${library.coalescing.timeout:5s}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Around("@annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        Call call = new Call(coalesced.value(), Arrays.asList(joinPoint.getArgs()));
+        CompletableFuture<Object> execution = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(call, execution);
+        if (running != null) {
+            return await(call, running);
+        }
+
+        count(call, "leader");
+        try {
+            Object result = joinPoint.proceed();
+            execution.complete(result);
+            return result;
+        } catch (Throwable exception) {
+            execution.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(call, execution);
+        }
+    }
+
+    private Object await(Call call, CompletableFuture<Object> running) throws Throwable {
+        try {
+            Object result = running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            count(call, "collapsed");
+            return result;
+        } catch (ExecutionException exception) {
+            count(call, "collapsed");
+            throw exception.getCause();
+        } catch (TimeoutException exception) {
+            count(call, "timeout");
+            throw new CoalescedLoadTimeoutException("Timed out waiting for a concurrent " + call.name() + " read.");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CoalescedLoadTimeoutException("Interrupted while waiting for a concurrent " + call.name() + " read.");
+        }
+    }
+
+    private void count(Call call, String result) {
+        Counter.builder("library.coalescing.calls")
+                .description("Calls of coalesced reads, by whether they ran the read or shared a concurrent one")
+                .tag("read", call.name())
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Arguments are compared by equals, so ids and flags make up the key
+    private record Call(String name, List<Object> arguments) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.exception.PreconditionFailedException;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+
+/**
+ * Derives the validators of book and author representations from entity versions, and checks If-Match preconditions
+ * against them. A book embeds its author's name and bio, but an author update also bumps the versions of their books
+ * (see BookRepository.touchByAuthorId), so a book's own version covers both; writes to other books of the same author
+ * leave its tag alone.
+ */
+final class ResourceVersions {
+
+    private ResourceVersions() {
+    }
+
+    static VersionDTO of(Book book) {
+        return new VersionDTO(String.valueOf(book.getVersion()), book.getLastModified());
+    }
+
+    static VersionDTO of(Author author) {
+        return new VersionDTO(String.valueOf(author.getVersion()), author.getLastModified());
+    }
+
+    /**
+     * Accepts a missing header, {@code *} or a list of entity tags containing the current tag, in any of the formats the
+     * representation was sent in; weak tags never match, as RFC 9110 requires strong comparison for If-Match.
+     */
+    static void checkIfMatch(String ifMatch, VersionDTO current) {
+        if (ifMatch == null) {
+            return;
+        }
+        String tag = "\"" + current.getTag();
+        for (String candidate : ifMatch.split(",")) {
+            String etag = candidate.trim();
+            // CBOR and Smile bodies carry the tag with a +cbor or +smile suffix
+            if (etag.equals("*") || etag.equals(tag + "\"") || etag.startsWith(tag + "+") && etag.endsWith("\"")) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("The resource was modified since it was fetched, fetch it again and retry.");
+    }
+}
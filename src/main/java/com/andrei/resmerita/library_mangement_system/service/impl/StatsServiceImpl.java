@@ -0,0 +1,57 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CatalogStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.service.StatsService;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Catalog figures computed by the database: every number is a count or a grouped projection answered by one query, so
+ * the figures are exact on every instance and whichever write path (single, bulk, write-behind) changed the catalog.
+ */
+@Service
+@Observed(name = "library.service")
+public class StatsServiceImpl implements StatsService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final BookMapper bookMapper;
+
+    @Autowired
+    public StatsServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogStatsDTO getCatalogStats(int topAuthors, int recentBooks) {
+        return new CatalogStatsDTO(
+                bookRepository.count(),
+                authorRepository.count(),
+                authorRepository.findTopByBookCount(Limit.of(topAuthors)),
+                bookMapper.toBookSummaryDTOs(bookRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(recentBooks))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuthorStatsDTO> getBooksPerAuthor(String pageToken, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<AuthorStatsDTO> rows = pageToken == null
+                ? authorRepository.findBookCountsOrderByIdAsc(limit)
+                : authorRepository.findBookCountsByIdGreaterThanOrderByIdAsc(PageTokens.decode(pageToken), limit);
+        return PageTokens.toPage(rows, size, AuthorStatsDTO::getAuthorId, Function.identity());
+    }
+}
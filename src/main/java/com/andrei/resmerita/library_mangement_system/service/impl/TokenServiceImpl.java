@@ -0,0 +1,54 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
+import com.andrei.resmerita.library_mangement_system.dto.TokenDTO;
+import com.andrei.resmerita.library_mangement_system.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    private static final String ISSUER = "library-management-system";
+
+    private final JwtEncoder jwtEncoder;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenServiceImpl(JwtEncoder jwtEncoder, @Value("${library.security.token.ttl:15m}") Duration ttl) {
+        this(jwtEncoder, ttl, Clock.systemUTC());
+    }
+
+    TokenServiceImpl(JwtEncoder jwtEncoder, Duration ttl, Clock clock) {
+        this.jwtEncoder = jwtEncoder;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public TokenDTO issueToken(Authentication authentication) {
+        Instant now = clock.instant();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(SecurityConfig.ROLES_CLAIM, authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims)).getTokenValue();
+        return new TokenDTO(token, "Bearer", ttl.toSeconds());
+    }
+}
@@ -0,0 +1,263 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.exception.WriteQueueFullException;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts book and author creations into a bounded in-memory queue and writes them from a single writer thread. The
+ * writer takes everything that queued up while it was busy, up to the batch size, and writes consecutive operations of
+ * the same kind together: books through the bulk importer, authors through {@link AuthorService#saveAuthors}, so a
+ * burst of single creations costs a few batched transactions instead of one commit each. A batch that fails is written
+ * again one operation at a time, so only the operations that cause the failure are reported as failed. A full queue
+ * rejects new operations rather than blocking the request thread.
+ * <p>
+ * Queued operations live only in memory: the queue is drained on shutdown, but a crash loses what was still pending.
+ */
+@Service
+public class WriteBehindServiceImpl implements WriteBehindService, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindServiceImpl.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int batchSize;
+    private final int bookChunkSize;
+    private final Cache<String, WriteOperationDTO> operations;
+    private final Counter rejected;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public WriteBehindServiceImpl(BookService bookService, AuthorService authorService, MeterRegistry meterRegistry, @Value("${library.write-behind.capacity:10000}") int capacity, @Value("${library.write-behind.batch-size:500}") int batchSize, @Value("${library.bulk.chunk-size:1000}") int bookChunkSize, @Value("${library.write-behind.status-ttl:10m}") Duration statusTtl) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.bookChunkSize = bookChunkSize;
+        this.operations = Caffeine.newBuilder().expireAfterWrite(statusTtl).build();
+        Gauge.builder("library.write.queue.size", queue, BlockingQueue::size).description("Operations waiting for the write-behind writer").register(meterRegistry);
+        this.rejected = Counter.builder("library.write.rejected").description("Operations rejected because the write-behind queue was full").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("library.write.batch.size").description("Operations written together by the write-behind writer").register(meterRegistry);
+    }
+
+    @Override
+    public WriteOperationDTO submitBook(BookDTO bookDTO) {
+        return submit(WriteOperationDTO.Type.BOOK, bookDTO);
+    }
+
+    @Override
+    public WriteOperationDTO submitAuthor(AuthorDTO authorDTO) {
+        return submit(WriteOperationDTO.Type.AUTHOR, authorDTO);
+    }
+
+    private WriteOperationDTO submit(WriteOperationDTO.Type type, Object payload) {
+        WriteOperationDTO operation = new WriteOperationDTO(UUID.randomUUID().toString(), type, WriteOperationDTO.Status.PENDING, null, null, Instant.now(), null);
+        operations.put(operation.getId(), operation);
+        if (!queue.offer(new PendingWrite(operation, payload))) {
+            operations.invalidate(operation.getId());
+            rejected.increment();
+            throw new WriteQueueFullException("Too many pending writes, please retry later.");
+        }
+        return operation;
+    }
+
+    @Override
+    public WriteOperationDTO getOperation(String id, WriteOperationDTO.Type type) {
+        WriteOperationDTO operation = operations.getIfPresent(id);
+        if (operation == null || operation.getType() != type) {
+            throw new ResourceNotFoundException("Write operation not found");
+        }
+        return operation;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "library-write-behind");
+        writer.start();
+    }
+
+    // Runs before the DataSource is closed, so everything accepted so far is still written
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchSizes.record(batch.size());
+                write(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException exception) {
+                log.error("Write-behind batch failed", exception);
+                // Operations written before the failure keep their status
+                batch.stream().filter(pendingWrite -> !pendingWrite.finished).forEach(pendingWrite -> fail(pendingWrite, exception));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Runs of the same kind are written together; the runs themselves keep queue order, so a book can follow its author
+    private void write(List<PendingWrite> batch) {
+        int start = 0;
+        while (start < batch.size()) {
+            WriteOperationDTO.Type type = batch.get(start).operation().getType();
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).operation().getType() == type) {
+                end++;
+            }
+            List<PendingWrite> run = batch.subList(start, end);
+            if (type == WriteOperationDTO.Type.BOOK) {
+                writeBooks(run);
+            } else {
+                writeAuthors(run);
+            }
+            start = end;
+        }
+    }
+
+    // Slices no larger than a chunk of the importer are committed or rolled back as a whole, so a failed slice can be
+    // written again book by book without duplicating the books of an earlier chunk
+    private void writeBooks(List<PendingWrite> run) {
+        for (int start = 0; start < run.size(); start += bookChunkSize) {
+            List<PendingWrite> slice = run.subList(start, Math.min(start + bookChunkSize, run.size()));
+            try {
+                saveBooks(slice);
+            } catch (RuntimeException batchException) {
+                for (PendingWrite pendingWrite : slice) {
+                    try {
+                        saveBooks(List.of(pendingWrite));
+                    } catch (RuntimeException exception) {
+                        fail(pendingWrite, exception);
+                    }
+                }
+            }
+        }
+    }
+
+    private void saveBooks(List<PendingWrite> books) {
+        List<BulkResultDTO> results = bookService.saveBooks(books.stream().map(pendingWrite -> (BookDTO) pendingWrite.payload()).toList());
+        for (BulkResultDTO result : results) {
+            PendingWrite pendingWrite = books.get(result.getIndex());
+            if (result.getStatus() == BulkResultDTO.Status.CREATED) {
+                complete(pendingWrite, result.getId());
+            } else {
+                fail(pendingWrite, result.getMessage());
+            }
+        }
+    }
+
+    private void writeAuthors(List<PendingWrite> run) {
+        try {
+            authorService.saveAuthors(run.stream().map(pendingWrite -> (AuthorDTO) pendingWrite.payload()).toList());
+            run.forEach(pendingWrite -> complete(pendingWrite, null));
+        } catch (RuntimeException batchException) {
+            // The batch was rolled back as a whole; write the authors one by one so only the conflicting ones fail
+            for (PendingWrite pendingWrite : run) {
+                try {
+                    authorService.saveAuthor((AuthorDTO) pendingWrite.payload());
+                    complete(pendingWrite, null);
+                } catch (RuntimeException exception) {
+                    fail(pendingWrite, exception);
+                }
+            }
+        }
+    }
+
+    private void complete(PendingWrite pendingWrite, String resourceId) {
+        update(pendingWrite, WriteOperationDTO.Status.COMPLETED, resourceId, null);
+    }
+
+    private void fail(PendingWrite pendingWrite, RuntimeException exception) {
+        fail(pendingWrite, exception instanceof DataIntegrityViolationException ? "The request conflicts with existing data." : exception.getMessage());
+    }
+
+    private void fail(PendingWrite pendingWrite, String message) {
+        update(pendingWrite, WriteOperationDTO.Status.FAILED, null, message);
+    }
+
+    // Pollers read the cached operation from request threads, so it is replaced instead of mutated
+    private void update(PendingWrite pendingWrite, WriteOperationDTO.Status status, String resourceId, String message) {
+        WriteOperationDTO accepted = pendingWrite.operation();
+        pendingWrite.finished = true;
+        operations.put(accepted.getId(), new WriteOperationDTO(accepted.getId(), accepted.getType(), status, resourceId, message, accepted.getAcceptedAt(), Instant.now()));
+    }
+
+    private static final class PendingWrite {
+
+        private final WriteOperationDTO operation;
+        private final Object payload;
+        // Only touched by the writer thread
+        private boolean finished;
+
+        private PendingWrite(WriteOperationDTO operation, Object payload) {
+            this.operation = operation;
+            this.payload = payload;
+        }
+
+        private WriteOperationDTO operation() {
+            return operation;
+        }
+
+        private Object payload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Portable between H2 and PostgreSQL; ids are UUIDs generated by Hibernate.
+create table author
+(
+    id            varchar(255) not null,
+    name          varchar(255),
+    bio           varchar(255),
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    constraint pk_author primary key (id),
+    constraint uk_author_name unique (name)
+);
+
+create table book
+(
+    id            varchar(255) not null,
+    title         varchar(255),
+    description   varchar(255),
+    isbn          varchar(255),
+    author_id     varchar(255) not null,
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    constraint pk_book primary key (id),
+    constraint uk_book_isbn unique (isbn),
+    constraint fk_book_author foreign key (author_id) references author (id)
+);
+
+-- Books of one author in keyset order, see BookRepository.findByAuthorIdAndIdGreaterThanOrderByIdAsc
+create index idx_book_author_id on book (author_id, id);
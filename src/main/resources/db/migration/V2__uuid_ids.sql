@@ -0,0 +1,9 @@
+-- Ids move from 36 character strings to native UUIDs. Existing ids are already UUID strings and are converted in place;
+-- new ones are time-ordered, see TimeOrderedIdGenerator.
+alter table book drop constraint fk_book_author;
+
+alter table author alter column id set data type uuid using cast(id as uuid);
+alter table book alter column id set data type uuid using cast(id as uuid);
+alter table book alter column author_id set data type uuid using cast(author_id as uuid);
+
+alter table book add constraint fk_book_author foreign key (author_id) references author (id);
@@ -0,0 +1,14 @@
+-- Creation time of a book for the created-after filter of /books/query. Existing books get their last modification,
+-- the closest time that was recorded for them.
+alter table book add column created_at timestamp(6) with time zone;
+update book set created_at = coalesce(last_modified, current_timestamp);
+alter table book alter column created_at set not null;
+
+-- One index per filter and sort order of the book query, see BookSpecifications. Each ends with the id, the final
+-- sort key, so a page sorted by one of these columns is a range scan that starts after the keys in the page token and
+-- stops once the page is full; sorts that mix directions cannot use them. ISBN prefixes use uk_book_isbn and author
+-- ids alone use idx_book_author_id.
+create index idx_book_title on book (title, id);
+create index idx_book_created_at on book (created_at, id);
+create index idx_book_author_title on book (author_id, title, id);
+create index idx_book_author_created_at on book (author_id, created_at, id);
@@ -0,0 +1,17 @@
+-- Outbox of catalog changes for /changes. Writers insert a row in the transaction of the change itself, without an
+-- offset; the relay gives committed rows their offsets in the order it sees them, so a consumer that resumes after an
+-- offset never misses a change that committed late with a lower id. See ChangeFeedServiceImpl.
+create table change_event
+(
+    id            uuid                        not null,
+    resource_type varchar(16)                 not null,
+    resource_id   uuid                        not null,
+    change_type   varchar(16)                 not null,
+    occurred_at   timestamp(6) with time zone not null,
+    feed_offset   bigint,
+    constraint pk_change_event primary key (id),
+    constraint uk_change_event_feed_offset unique (feed_offset)
+);
+
+-- Rows still waiting for the relay (null offsets) in id order
+create index idx_change_event_feed_offset_id on change_event (feed_offset, id);
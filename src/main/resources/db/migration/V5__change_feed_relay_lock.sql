@@ -0,0 +1,9 @@
+-- A single row the change feed relay locks while it numbers a batch, so the relays of several application instances
+-- take turns instead of handing out the same offsets. See ChangeFeedServiceImpl.
+create table change_feed_relay
+(
+    id integer not null,
+    constraint pk_change_feed_relay primary key (id)
+);
+
+insert into change_feed_relay (id) values (1);
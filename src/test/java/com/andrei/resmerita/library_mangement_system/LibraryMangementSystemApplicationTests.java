@@ -3,7 +3,7 @@ package com.andrei.resmerita.library_mangement_system;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
 class LibraryMangementSystemApplicationTests {
 
 	@Test
@@ -0,0 +1,87 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingAuthenticationProviderTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger verifications = new AtomicInteger();
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        // Stands in for the password check: every user's password is "password"
+        AuthenticationProvider delegate = new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                verifications.incrementAndGet();
+                if (!"password".equals(authentication.getCredentials())) {
+                    throw new BadCredentialsException("Bad credentials");
+                }
+                return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return true;
+            }
+        };
+        provider = new CachingAuthenticationProvider(delegate, 2, TTL, nanos::get);
+    }
+
+    @Test
+    void repeatedCredentialsShouldBeVerifiedOnce() {
+        Authentication first = provider.authenticate(request("user", "password"));
+        Authentication second = provider.authenticate(request("user", "password"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void wrongPasswordShouldNeverBeServedFromTheCache() {
+        provider.authenticate(request("user", "password"));
+
+        assertThatThrownBy(() -> provider.authenticate(request("user", "wrong"))).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(request("user", "wrong"))).isInstanceOf(BadCredentialsException.class);
+        assertThat(verifications).hasValue(3);
+    }
+
+    @Test
+    void entriesShouldExpireAfterTheTtl() {
+        provider.authenticate(request("user", "password"));
+        nanos.addAndGet(TTL.plusSeconds(1).toNanos());
+        provider.authenticate(request("user", "password"));
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void cacheShouldStayWithinItsMaximumSize() {
+        for (int i = 0; i < 10; i++) {
+            provider.authenticate(request("reader" + i, "password"));
+        }
+
+        assertThat(provider.size()).isLessThanOrEqualTo(2);
+    }
+
+    private static UsernamePasswordAuthenticationToken request(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,74 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @BeforeEach
+    void setUp() {
+        if (bookService.getAllBooks().isEmpty()) {
+            AuthorDTO author = authorService.saveAuthor(Utils.createAuthorDTO("Metrics Author", "Bio"));
+            bookService.saveBook(Utils.createBookDTO("Metrics Book", "Description", "metrics-1", author));
+        }
+    }
+
+    @Test
+    void everyResponseShouldCarryItsTraceId() throws Exception {
+        mockMvc.perform(get("/books/getAllBooks").with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RequestMetricsFilter.TRACE_ID_HEADER, matchesPattern("[0-9a-f]{16,32}")));
+    }
+
+    @Test
+    void hotPathMetricsShouldBeScrapedInPrometheusFormat() throws Exception {
+        mockMvc.perform(get("/books/getAllBooks").with(httpBasic("user", "password"))).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("library_service_seconds_bucket{")
+                .contains("method=\"getAllBooks\"")
+                .contains("library_mapper_seconds_bucket{")
+                .contains("library_serialization_seconds_bucket{")
+                .contains("library_sql_statements_bucket{")
+                .contains("uri=\"/books/getAllBooks\"");
+    }
+
+    @Test
+    void prometheusEndpointShouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,74 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.repository.ReactiveCatalogRepository;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the postgres profile against H2 in PostgreSQL compatibility mode as a local stand-in: the PostgreSQL dialect, the
+ * Flyway migrations and schema validation are exercised without a PostgreSQL server.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:library_postgres;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.r2dbc.url=r2dbc:h2:mem:///library_postgres;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "library.changes.relay.enabled=false"
+})
+@ActiveProfiles("postgres")
+class PostgresProfileTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReactiveCatalogRepository reactiveCatalogRepository;
+
+    @Test
+    void schemaShouldBeCreatedByFlywayAndUsedWithThePostgresDialect() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+
+        assertThat(dialect).isInstanceOf(PostgreSQLDialect.class);
+        assertThat(flyway.info().applied()).isNotEmpty().allSatisfy(migration -> assertThat(migration.getState().isApplied()).isTrue());
+    }
+
+    @Test
+    void catalogShouldBeWritableThroughJpaAndReadableThroughR2dbc() {
+        AuthorDTO author = authorService.saveAuthor(Utils.createAuthorDTO("Ursula K. Le Guin", "American author"));
+        bookService.saveBook(Utils.createBookDTO("The Dispossessed", "An ambiguous utopia", "postgres-1", author));
+        String bookId = bookRepository.findByIsbn("postgres-1").orElseThrow().getId();
+
+        BookDTO found = reactiveCatalogRepository.findBookById(bookId).block();
+
+        assertThat(found).isNotNull();
+        assertThat(found.getIsbn()).isEqualTo("postgres-1");
+        assertThat(found.getAuthor().getName()).isEqualTo("Ursula K. Le Guin");
+        assertThat(bookService.getBookById(bookId).getVersion().getTag()).isNotBlank();
+    }
+}
@@ -0,0 +1,89 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The reactive read API is only served by the separate WebFlux server, which only starts next to a real servlet server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"library.reactive.server.port=0", "library.changes.relay.enabled=false"})
+class ReactiveCatalogServerTest {
+
+    private static final String BASIC_CREDENTIALS = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8));
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveCatalogServer reactiveCatalogServer;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Utils.createAuthor("Jules Verne", "French novelist"));
+        bookRepository.save(Utils.createBook("Around the World in Eighty Days", "Adventure novel", "reactive-server-1", author));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void reactiveServerShouldRequireAuthentication() throws IOException, InterruptedException {
+        HttpResponse<String> response = get(reactiveCatalogServer.getPort(), "/reactive/authors/getAll", null);
+
+        assertThat(response.statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void reactiveServerShouldStreamAuthorsWithBookCounts() throws IOException, InterruptedException {
+        HttpResponse<String> response = get(reactiveCatalogServer.getPort(), "/reactive/authors/getAll", BASIC_CREDENTIALS);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body().lines().filter(line -> line.contains("\"name\":\"Jules Verne\"")))
+                .singleElement().satisfies(line -> assertThat(line).contains("\"bookCount\":1", "\"books\":null"));
+    }
+
+    @Test
+    void servletServerShouldNotServeTheReactiveApi() throws IOException, InterruptedException {
+        assertThat(reactiveCatalogServer.getPort()).isNotEqualTo(servletPort);
+        assertThat(get(servletPort, "/reactive/authors/getAll", null).statusCode()).isEqualTo(401);
+        assertThat(get(servletPort, "/reactive/authors/getAll", BASIC_CREDENTIALS).statusCode()).isEqualTo(404);
+    }
+
+    private HttpResponse<String> get(int port, String path, String authorization) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header(HttpHeaders.ACCEPT, "application/x-ndjson");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
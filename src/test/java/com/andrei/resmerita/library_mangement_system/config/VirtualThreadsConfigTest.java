@@ -0,0 +1,43 @@
+package com.andrei.resmerita.library_mangement_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    void requireVirtualThreadSupportShouldRejectJavaBelow21() {
+        assertThatThrownBy(() -> VirtualThreadsConfig.requireVirtualThreadSupport(17))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("requires Java 21");
+    }
+
+    @Test
+    void requireVirtualThreadSupportShouldAcceptJava21() {
+        assertThatCode(() -> VirtualThreadsConfig.requireVirtualThreadSupport(21)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkShouldOnlyRunWhenVirtualThreadsAreEnabled() {
+        contextRunner.run(context -> assertThat(context).hasNotFailed().doesNotHaveBean(VirtualThreadsConfig.class));
+    }
+
+    @Test
+    void contextShouldFailOnOlderRuntimesWhenVirtualThreadsAreEnabled() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            if (Runtime.version().feature() < VirtualThreadsConfig.MINIMUM_JAVA_VERSION) {
+                assertThat(context).hasFailed();
+                assertThat(context.getStartupFailure()).rootCause().hasMessageContaining("requires Java 21");
+            } else {
+                assertThat(context).hasNotFailed();
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
+import com.andrei.resmerita.library_mangement_system.dto.TokenDTO;
+import com.andrei.resmerita.library_mangement_system.exception.GlobalExceptionHandler;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
+import com.andrei.resmerita.library_mangement_system.service.impl.TokenServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest({AuthController.class, BookController.class})
+@Import({GlobalExceptionHandler.class, SecurityConfig.class, TokenServiceImpl.class})
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private WriteBehindService writeBehindService;
+
+    @Test
+    void testIssueTokenShouldReturnBearerTokenForValidCredentials() throws Exception {
+        mockMvc.perform(post("/auth/token").with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType", is("Bearer")))
+                .andExpect(jsonPath("$.expiresIn", is(900)))
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+    }
+
+    @Test
+    void testIssueTokenShouldReturnUnauthorizedForWrongPassword() throws Exception {
+        mockMvc.perform(post("/auth/token").with(httpBasic("user", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testIssueTokenShouldRejectBearerToken() throws Exception {
+        String response = mockMvc.perform(post("/auth/token").with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenDTO token = objectMapper.readValue(response, TokenDTO.class);
+
+        mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getAccessToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testProtectedEndpointShouldAcceptIssuedToken() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of());
+        String response = mockMvc.perform(post("/auth/token").with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenDTO token = objectMapper.readValue(response, TokenDTO.class);
+
+        mockMvc.perform(get("/books/getAllBooks").header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getAccessToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testProtectedEndpointShouldRejectTamperedToken() throws Exception {
+        String response = mockMvc.perform(post("/auth/token").with(httpBasic("user", "password")))
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readValue(response, TokenDTO.class).getAccessToken();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(get("/books/getAllBooks").header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testProtectedEndpointShouldStillAcceptHttpBasic() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of());
+
+        mockMvc.perform(get("/books/getAllBooks").with(httpBasic("user", "password")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/books/getAllBooks").with(httpBasic("user", "password")))
+                .andExpect(status().isOk());
+    }
+}
@@ -2,12 +2,24 @@ package com.andrei.resmerita.library_mangement_system.controller;
 
 import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
-import com.andrei.resmerita.library_mangement_system.exception.AuthorAlreadyExistsException;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
 import com.andrei.resmerita.library_mangement_system.exception.GlobalExceptionHandler;
+import com.andrei.resmerita.library_mangement_system.exception.PreconditionFailedException;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.exception.WriteQueueFullException;
 import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,18 +27,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -43,10 +65,14 @@ class AuthorControllerTest {
     @MockBean
     private AuthorService authorService;
 
+    @MockBean
+    private WriteBehindService writeBehindService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private AuthorDTO authorDTO;
+    private VersionDTO version;
     private BookDTO bookDTO;
 
     @BeforeEach
@@ -54,7 +80,8 @@ class AuthorControllerTest {
         bookDTO = new BookDTO("Harry Potter", "Fantasy novel", "1234567890", null);
         Set<BookDTO> books = new HashSet<>();
         books.add(bookDTO);
-        authorDTO = new AuthorDTO("Jules Verne", "Journey to the Centre of the Earth.", books);
+        authorDTO = new AuthorDTO("Jules Verne", "Journey to the Centre of the Earth.", books, null);
+        version = new VersionDTO("3", Instant.parse("2024-06-01T10:15:30Z"));
     }
 
     @Test
@@ -70,11 +97,59 @@ class AuthorControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.name", containsString("Jules Verne")));
     }
+    @Test
+    @WithMockUser()
+    void testAddAuthorAsyncShouldQueueTheWriteAndReturnAccepted() throws Exception {
+        WriteOperationDTO operation = new WriteOperationDTO("op-1", WriteOperationDTO.Type.AUTHOR, WriteOperationDTO.Status.PENDING, null, null, Instant.parse("2024-06-01T10:15:30Z"), null);
+        when(writeBehindService.submitAuthor(any(AuthorDTO.class))).thenReturn(operation);
+
+        mockMvc.perform(post("/authors/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authorDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/authors/getWriteOperation/op-1"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(authorService, never()).saveAuthor(any(AuthorDTO.class));
+    }
+
+    @Test
+    @WithMockUser()
+    void testAddAuthorAsyncShouldReturnTooManyRequestsWhenQueueIsFull() throws Exception {
+        when(writeBehindService.submitAuthor(any(AuthorDTO.class))).thenThrow(new WriteQueueFullException("Too many pending writes, please retry later."));
+
+        mockMvc.perform(post("/authors/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authorDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.errorMessage", containsString("Too many pending writes")));
+    }
 
     @Test
     @WithMockUser()
-    void testAddAuthorShouldReturnConflictWhenAuthorAlreadyExists() throws Exception {
-        when(authorService.saveAuthor(any(AuthorDTO.class))).thenThrow(new AuthorAlreadyExistsException("An author with this name already exists."));
+    void testGetWriteOperationShouldReturnOperationState() throws Exception {
+        WriteOperationDTO operation = new WriteOperationDTO("op-1", WriteOperationDTO.Type.AUTHOR, WriteOperationDTO.Status.FAILED, null, "The request conflicts with existing data.", Instant.parse("2024-06-01T10:15:30Z"), Instant.parse("2024-06-01T10:15:31Z"));
+        when(writeBehindService.getOperation("op-1", WriteOperationDTO.Type.AUTHOR)).thenReturn(operation);
+        when(writeBehindService.getOperation("missing", WriteOperationDTO.Type.AUTHOR)).thenThrow(new ResourceNotFoundException("Write operation not found"));
+
+        mockMvc.perform(get("/authors/getWriteOperation/op-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.message", containsString("conflicts")));
+        mockMvc.perform(get("/authors/getWriteOperation/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    @WithMockUser()
+    void testAddAuthorShouldReturnConflictWhenNameConstraintIsViolated() throws Exception {
+        when(authorService.saveAuthor(any(AuthorDTO.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new org.hibernate.exception.ConstraintViolationException("Unique index or primary key violation", null, "PUBLIC.UK_AUTHOR_NAME_INDEX_1")));
 
         String authorJson = objectMapper.writeValueAsString(authorDTO);
 
@@ -88,7 +163,7 @@ class AuthorControllerTest {
     @Test
     @WithMockUser()
     void testAddAuthorShouldReturnBadRequestWhenValidationFails() throws Exception {
-        AuthorDTO invalidAuthorDTO = new AuthorDTO("", "", null);
+        AuthorDTO invalidAuthorDTO = new AuthorDTO("", "", null, null);
 
         String invalidAuthorJson = objectMapper.writeValueAsString(invalidAuthorDTO);
 
@@ -101,10 +176,38 @@ class AuthorControllerTest {
                 .andExpect(jsonPath("$.bio", containsString("Biography cannot be null or empty")));
     }
 
+    @Test
+    @WithMockUser()
+    void testAddAuthorsShouldReturnCreatedAuthors() throws Exception {
+        when(authorService.saveAuthors(anyList())).thenReturn(List.of(authorDTO));
+
+        String authorsJson = objectMapper.writeValueAsString(List.of(authorDTO));
+
+        mockMvc.perform(post("/authors/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(authorsJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].name", containsString("Jules Verne")))
+                .andExpect(jsonPath("$[0].books[0].isbn", containsString("1234567890")));
+    }
+
+    @Test
+    @WithMockUser()
+    void testAddAuthorsShouldReturnBadRequestWhenAnAuthorIsInvalid() throws Exception {
+        String authorsJson = objectMapper.writeValueAsString(List.of(authorDTO, new AuthorDTO("", "Bio", null, null)));
+
+        mockMvc.perform(post("/authors/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(authorsJson))
+                .andExpect(status().isBadRequest());
+
+        verify(authorService, never()).saveAuthors(anyList());
+    }
+
     @Test
     @WithMockUser()
     void testUpdateAuthorShouldReturnUpdatedAuthor() throws Exception {
-        when(authorService.updateAuthor(any(String.class), any(AuthorDTO.class))).thenReturn(authorDTO);
+        when(authorService.updateAuthor(any(String.class), any(AuthorDTO.class), isNull())).thenReturn(authorDTO);
 
         String authorJson = objectMapper.writeValueAsString(authorDTO);
 
@@ -118,7 +221,7 @@ class AuthorControllerTest {
     @Test
     @WithMockUser()
     void testUpdateAuthorShouldReturnNotFoundWhenAuthorDoesNotExist() throws Exception {
-        when(authorService.updateAuthor(any(String.class), any(AuthorDTO.class))).thenThrow(new ResourceNotFoundException("Author not found"));
+        when(authorService.updateAuthor(any(String.class), any(AuthorDTO.class), isNull())).thenThrow(new ResourceNotFoundException("Author not found"));
 
         String authorJson = objectMapper.writeValueAsString(authorDTO);
 
@@ -129,6 +232,19 @@ class AuthorControllerTest {
                 .andExpect(jsonPath("$.errorMessage", containsString("Author not found")));
     }
 
+    @Test
+    @WithMockUser()
+    void testUpdateAuthorShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+        when(authorService.updateAuthor(eq("1"), any(AuthorDTO.class), eq("\"1\""))).thenThrow(new PreconditionFailedException("The resource was modified since it was fetched, fetch it again and retry."));
+
+        mockMvc.perform(put("/authors/update/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authorDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorMessage", containsString("modified since it was fetched")));
+    }
+
     @Test
     @WithMockUser()
     void testDeleteAuthorShouldReturnNoContent() throws Exception {
@@ -140,7 +256,7 @@ class AuthorControllerTest {
     @WithMockUser()
     void testGetAllAuthorsShouldReturnAuthorsList() throws Exception {
         List<AuthorDTO> authors = Collections.singletonList(authorDTO);
-        when(authorService.getAllAuthors()).thenReturn(authors);
+        when(authorService.getAllAuthors(false)).thenReturn(authors);
 
         mockMvc.perform(get("/authors/getAll")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -151,7 +267,7 @@ class AuthorControllerTest {
     @Test
     @WithMockUser()
     void testGetAuthorByIdShouldReturnAuthor() throws Exception {
-        when(authorService.getAuthorById(any(String.class))).thenReturn(authorDTO);
+        when(authorService.getAuthorById(any(String.class), eq(false))).thenReturn(new VersionedDTO<>(authorDTO, version));
 
         mockMvc.perform(get("/authors/getAuthorById/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -159,10 +275,37 @@ class AuthorControllerTest {
                 .andExpect(jsonPath("$.name", containsString("Jules Verne")));
     }
 
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldReturnNotModifiedWhenTheTagMatches() throws Exception {
+        when(authorService.getAuthorById("1", false)).thenReturn(new VersionedDTO<>(authorDTO, version));
+
+        mockMvc.perform(get("/authors/getAuthorById/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldTagSmileSeparatelyFromJson() throws Exception {
+        when(authorService.getAuthorById("1", false)).thenReturn(new VersionedDTO<>(authorDTO, version));
+
+        byte[] body = mockMvc.perform(get("/authors/getAuthorById/1")
+                        .accept(MediaType.parseMediaType(BookController.APPLICATION_SMILE_VALUE))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3+smile\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new SmileMapper().readValue(body, AuthorDTO.class).getName()).isEqualTo("Jules Verne");
+    }
+
     @Test
     @WithMockUser()
     void testGetAuthorByIdShouldReturnNotFoundWhenAuthorDoesNotExist() throws Exception {
-        when(authorService.getAuthorById(any(String.class))).thenThrow(new ResourceNotFoundException("Author not found"));
+        when(authorService.getAuthorById(any(String.class), anyBoolean())).thenThrow(new ResourceNotFoundException("Author not found"));
 
         mockMvc.perform(get("/authors/getAuthorById/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -170,10 +313,107 @@ class AuthorControllerTest {
                 .andExpect(jsonPath("$.errorMessage", containsString("Author not found")));
     }
 
+    @Test
+    @WithMockUser()
+    void testGetAuthorDetailsShouldReturnBookCountAndBookSummaries() throws Exception {
+        BookSummaryDTO summary = new BookSummaryDTO("10", "Harry Potter", "1234567890", "1", "Jules Verne");
+        AuthorDetailDTO authorDetail = new AuthorDetailDTO("1", "Jules Verne", "Journey to the Centre of the Earth.", 1, new CursorPageDTO<>(List.of(summary), null));
+        when(authorService.getAuthorDetails(eq("1"), isNull(), eq(20))).thenReturn(authorDetail);
+
+        mockMvc.perform(get("/authors/getAuthorDetails/1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookCount").value(1))
+                .andExpect(jsonPath("$.books.content[0].authorName", containsString("Jules Verne")));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldListBooksOnlyWhenAsked() throws Exception {
+        when(authorService.getAuthorById("1", false)).thenReturn(new VersionedDTO<>(new AuthorDTO(authorDTO.getName(), authorDTO.getBio(), null, 1L), version));
+        when(authorService.getAuthorById("1", true)).thenReturn(new VersionedDTO<>(authorDTO, version));
+
+        mockMvc.perform(get("/authors/getAuthorById/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookCount").value(1))
+                .andExpect(jsonPath("$.books").doesNotExist());
+        mockMvc.perform(get("/authors/getAuthorById/1")
+                        .param("includeBooks", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].isbn", containsString("1234567890")));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorsByIdsShouldReturnFoundAuthorsAndMissingIds() throws Exception {
+        when(authorService.getAuthorsByIds(List.of("1", "2"))).thenReturn(new BatchDTO<>(List.of(new AuthorDTO(authorDTO.getName(), authorDTO.getBio(), null, 2L)), List.of("2")));
+
+        mockMvc.perform(post("/authors/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of("1", "2"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].bookCount").value(2))
+                .andExpect(jsonPath("$.missingIds[0]").value("2"));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorsByIdsShouldReturnBadRequestWhenAnIdIsBlank() throws Exception {
+        mockMvc.perform(post("/authors/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\", \"\"]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorBooksShouldReturnPageOfBookSummaries() throws Exception {
+        BookSummaryDTO summary = new BookSummaryDTO("10", "Harry Potter", "1234567890", "1", "Jules Verne");
+        when(authorService.getAuthorBooks(eq("1"), eq("MTA"), eq(1))).thenReturn(new CursorPageDTO<>(List.of(summary), "MTE"));
+        when(authorService.getAuthorBooks(eq("2"), isNull(), eq(50))).thenThrow(new ResourceNotFoundException("Author not found"));
+
+        mockMvc.perform(get("/authors/getAuthorBooks/1")
+                        .param("pageToken", "MTA")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].isbn").value("1234567890"))
+                .andExpect(jsonPath("$.nextPageToken").value("MTE"));
+        mockMvc.perform(get("/authors/getAuthorBooks/2"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void whenAccessAuthorsWithoutAuth_thenUnauthorized() throws Exception {
         mockMvc.perform(get("/authors/getAll")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    @WithMockUser()
+    void testGetAllAuthorsShouldReturnSmileWhenAccepted() throws Exception {
+        when(authorService.getAllAuthors(false)).thenReturn(List.of(authorDTO));
+
+        byte[] body = mockMvc.perform(get("/authors/getAll").accept(MediaType.parseMediaType("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<AuthorDTO> authors = new SmileMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(authors).containsExactly(authorDTO);
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldReturnErrorsAsCborWhenAccepted() throws Exception {
+        when(authorService.getAuthorById(any(String.class), anyBoolean())).thenThrow(new ResourceNotFoundException("Author not found"));
+
+        byte[] body = mockMvc.perform(get("/authors/getAuthorById/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new CBORMapper().readTree(body).get("errorMessage").asText()).isEqualTo("Author not found");
+    }
 }
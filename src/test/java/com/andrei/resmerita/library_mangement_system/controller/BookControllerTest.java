@@ -2,12 +2,25 @@ package com.andrei.resmerita.library_mangement_system.controller;
 
 import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
-import com.andrei.resmerita.library_mangement_system.exception.BookAlreadyExistException;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
 import com.andrei.resmerita.library_mangement_system.exception.GlobalExceptionHandler;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidSortException;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.exception.WriteQueueFullException;
 import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.service.WriteBehindService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,15 +28,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,6 +72,9 @@ class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private WriteBehindService writeBehindService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,7 +83,7 @@ class BookControllerTest {
 
     @BeforeEach
     void setUp() {
-        authorDTO = new AuthorDTO("J.K. Rowling", "British author, best known for the Harry Potter series.", null);
+        authorDTO = new AuthorDTO("J.K. Rowling", "British author, best known for the Harry Potter series.", null, null);
         bookDTO = new BookDTO("Harry Potter", "Fantasy novel", "1234567890", authorDTO);
     }
 
@@ -64,10 +100,55 @@ class BookControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.title", containsString("Harry Potter")));
     }
+    @Test
+    void testAddBookAsyncShouldQueueTheWriteAndReturnAccepted() throws Exception {
+        WriteOperationDTO operation = new WriteOperationDTO("op-1", WriteOperationDTO.Type.BOOK, WriteOperationDTO.Status.PENDING, null, null, Instant.parse("2024-06-01T10:15:30Z"), null);
+        when(writeBehindService.submitBook(any(BookDTO.class))).thenReturn(operation);
+
+        mockMvc.perform(post("/books/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/books/getWriteOperation/op-1"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(bookService, never()).saveBook(any(BookDTO.class));
+    }
 
     @Test
-    void testAddBookShouldReturnConflictWhenBookAlreadyExists() throws Exception {
-        when(bookService.saveBook(any(BookDTO.class))).thenThrow(new BookAlreadyExistException("A book with this ISBN already exists."));
+    void testAddBookAsyncShouldReturnTooManyRequestsWhenQueueIsFull() throws Exception {
+        when(writeBehindService.submitBook(any(BookDTO.class))).thenThrow(new WriteQueueFullException("Too many pending writes, please retry later."));
+
+        mockMvc.perform(post("/books/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.errorMessage", containsString("Too many pending writes")));
+    }
+
+    @Test
+    void testGetWriteOperationShouldReturnOperationState() throws Exception {
+        WriteOperationDTO operation = new WriteOperationDTO("op-1", WriteOperationDTO.Type.BOOK, WriteOperationDTO.Status.FAILED, null, "The request conflicts with existing data.", Instant.parse("2024-06-01T10:15:30Z"), Instant.parse("2024-06-01T10:15:31Z"));
+        when(writeBehindService.getOperation("op-1", WriteOperationDTO.Type.BOOK)).thenReturn(operation);
+        when(writeBehindService.getOperation("missing", WriteOperationDTO.Type.BOOK)).thenThrow(new ResourceNotFoundException("Write operation not found"));
+
+        mockMvc.perform(get("/books/getWriteOperation/op-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.message", containsString("conflicts")));
+        mockMvc.perform(get("/books/getWriteOperation/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    void testAddBookShouldReturnConflictWhenIsbnConstraintIsViolated() throws Exception {
+        when(bookService.saveBook(any(BookDTO.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new org.hibernate.exception.ConstraintViolationException("Unique index or primary key violation", null, "PUBLIC.UK_BOOK_ISBN_INDEX_1")));
 
         String bookJson = objectMapper.writeValueAsString(bookDTO);
 
@@ -78,6 +159,15 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.errorMessage", containsString("A book with this ISBN already exists.")));
     }
 
+    @Test
+    void testGetBooksPageShouldReturnServiceUnavailableWhenNoConnectionIsAvailable() throws Exception {
+        when(bookService.getBooksPage(isNull(), eq(50))).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        mockMvc.perform(get("/books/getBooksPage"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorMessage", containsString("The service is busy")));
+    }
+
     @Test
     void testAddBookShouldReturnNotFoundWhenAuthorNotFound() throws Exception {
         when(bookService.saveBook(any(BookDTO.class))).thenThrow(new ResourceNotFoundException("Author not found"));
@@ -93,7 +183,7 @@ class BookControllerTest {
 
     @Test
     void testAddBookShouldReturnBadRequestWhenValidationFails() throws Exception {
-        AuthorDTO invalidAuthorDTO = new AuthorDTO("", "", null);
+        AuthorDTO invalidAuthorDTO = new AuthorDTO("", "", null, null);
         BookDTO invalidBookDTO = new BookDTO("", "", "", invalidAuthorDTO);
 
         String invalidBookJson = objectMapper.writeValueAsString(invalidBookDTO);
@@ -108,4 +198,231 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.['author.bio']", containsString("Biography cannot be null or empty")));
     }
 
+    @Test
+    void testGetBooksPageShouldReturnPageWithNextToken() throws Exception {
+        when(bookService.getBooksPage(isNull(), eq(1))).thenReturn(new CursorPageDTO<>(List.of(bookDTO), "MQ"));
+
+        mockMvc.perform(get("/books/getBooksPage")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title", containsString("Harry Potter")))
+                .andExpect(jsonPath("$.nextPageToken", containsString("MQ")));
+    }
+
+    @Test
+    void testGetBooksPageShouldReturnBadRequestWhenSizeIsTooLarge() throws Exception {
+        mockMvc.perform(get("/books/getBooksPage")
+                        .param("size", "10000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchBooksShouldReturnRankedSummaries() throws Exception {
+        BookSummaryDTO summary = new BookSummaryDTO("1", "Harry Potter and the Philosopher's Stone", "9780747532699", "2", "J.K. Rowling");
+        when(bookService.searchBooks(eq("harry pot"), isNull(), eq(20))).thenReturn(new CursorPageDTO<>(List.of(summary), null));
+
+        mockMvc.perform(get("/books/search")
+                        .param("q", "harry pot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title", containsString("Harry Potter")))
+                .andExpect(jsonPath("$.nextPageToken").doesNotExist());
+    }
+
+    @Test
+    void testGetBooksByIdsShouldReturnFoundBooksAndMissingIds() throws Exception {
+        when(bookService.getBooksByIds(List.of("1", "2"))).thenReturn(new BatchDTO<>(List.of(bookDTO), List.of("2")));
+
+        mockMvc.perform(post("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of("1", "2"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].isbn").value("1234567890"))
+                .andExpect(jsonPath("$.missingIds[0]").value("2"));
+    }
+
+    @Test
+    void testGetBooksByIdsShouldReturnBadRequestWhenTooManyIds() throws Exception {
+        List<String> ids = IntStream.rangeClosed(0, BookController.MAX_BATCH_IDS).mapToObj(String::valueOf).toList();
+
+        mockMvc.perform(post("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).getBooksByIds(anyList());
+    }
+
+    @Test
+    void testQueryBooksShouldBindFiltersAndSortKeys() throws Exception {
+        BookSummaryDTO summary = new BookSummaryDTO("1", "Harry Potter and the Philosopher's Stone", "9780747532699", "2", "J.K. Rowling");
+        BookFilterDTO filter = new BookFilterDTO("2", null, "Harry", null, Instant.parse("2024-01-01T00:00:00Z"));
+        when(bookService.queryBooks(eq(filter), eq(List.of("-createdAt", "title")), isNull(), eq(10))).thenReturn(new CursorPageDTO<>(List.of(summary), "MTA"));
+
+        mockMvc.perform(get("/books/query")
+                        .param("authorId", "2")
+                        .param("titlePrefix", "Harry")
+                        .param("createdAfter", "2024-01-01T00:00:00Z")
+                        .param("sort", "-createdAt,title")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].authorName").value("J.K. Rowling"))
+                .andExpect(jsonPath("$.nextPageToken").value("MTA"));
+    }
+
+    @Test
+    void testQueryBooksShouldReturnBadRequestWhenSortIsUnknown() throws Exception {
+        when(bookService.queryBooks(any(BookFilterDTO.class), eq(List.of("description")), isNull(), eq(50))).thenThrow(new InvalidSortException("Books cannot be sorted by 'description'"));
+
+        mockMvc.perform(get("/books/query")
+                        .param("sort", "description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage", containsString("description")));
+    }
+
+    @Test
+    void testSearchBooksShouldReturnBadRequestWhenQueryIsBlank() throws Exception {
+        mockMvc.perform(get("/books/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllBooksShouldWriteJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> consumer = invocation.getArgument(0);
+            consumer.accept(bookDTO);
+            consumer.accept(bookDTO);
+            return null;
+        }).when(bookService).streamAllBooks(any(Consumer.class));
+
+        MvcResult mvcResult = mockMvc.perform(get("/books/streamAllBooks"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].isbn", containsString("1234567890")));
+    }
+
+    @Test
+    void testAddBooksShouldReturnResultPerRow() throws Exception {
+        when(bookService.saveBooks(anyList())).thenReturn(List.of(
+                new BulkResultDTO(0, "1234567890", BulkResultDTO.Status.CREATED, "1", null),
+                new BulkResultDTO(1, "1234567890", BulkResultDTO.Status.DUPLICATE, null, "A book with this ISBN already exists.")));
+
+        mockMvc.perform(post("/books/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookDTO, bookDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", containsString("CREATED")))
+                .andExpect(jsonPath("$[1].status", containsString("DUPLICATE")));
+    }
+
+    @Test
+    void testAddBooksFromNdjsonShouldReadEveryLine() throws Exception {
+        when(bookService.saveBooks(anyList())).thenAnswer(invocation -> {
+            List<BookDTO> rows = invocation.getArgument(0);
+            return rows.stream().map(row -> new BulkResultDTO(rows.indexOf(row), row.getIsbn(), BulkResultDTO.Status.CREATED, row.getIsbn(), null)).toList();
+        });
+        BookDTO secondBookDTO = new BookDTO("Harry Potter 2", "Fantasy novel", "1234567891", authorDTO);
+        String ndjson = objectMapper.writeValueAsString(bookDTO) + "\n" + objectMapper.writeValueAsString(secondBookDTO) + "\n";
+
+        mockMvc.perform(post("/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].isbn", containsString("1234567891")));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetBookByIdShouldReturnETagAndLastModified() throws Exception {
+        when(bookService.getBookById("1")).thenReturn(new VersionedDTO<>(bookDTO, new VersionDTO("2.5", Instant.parse("2024-06-01T10:15:30Z"))));
+
+        mockMvc.perform(get("/books/getBook/1").header(HttpHeaders.IF_NONE_MATCH, "\"1.5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2.5\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sat, 01 Jun 2024 10:15:30 GMT"))
+                .andExpect(jsonPath("$.isbn", containsString("1234567890")));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetBookByIdShouldTagCborSeparatelyFromJson() throws Exception {
+        when(bookService.getBookById("1")).thenReturn(new VersionedDTO<>(bookDTO, new VersionDTO("2.5", Instant.parse("2024-06-01T10:15:30Z"))));
+
+        byte[] body = mockMvc.perform(get("/books/getBook/1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"2.5\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2.5+cbor\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new CBORMapper().readValue(body, BookDTO.class).getIsbn()).isEqualTo("1234567890");
+        mockMvc.perform(get("/books/getBook/1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"2.5+cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetBookByIdShouldReturnNotModifiedWhenUnchangedSinceIfModifiedSince() throws Exception {
+        when(bookService.getBookById("1")).thenReturn(new VersionedDTO<>(bookDTO, new VersionDTO("2.5", Instant.parse("2024-06-01T10:15:30Z"))));
+
+        mockMvc.perform(get("/books/getBook/1").header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 01 Jun 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser()
+    void testUpdateBookShouldPassIfMatchToTheService() throws Exception {
+        when(bookService.updateBook(eq("1"), any(BookDTO.class), eq("\"2.5\""))).thenReturn(bookDTO);
+
+        mockMvc.perform(put("/books/update/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2.5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDTO)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAllBooksShouldReturnCborWhenAccepted() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of(bookDTO));
+
+        byte[] body = mockMvc.perform(get("/books/getAllBooks").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<BookDTO> books = new CBORMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(books).containsExactly(bookDTO);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllBooksShouldWriteSmileWhenAccepted() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> consumer = invocation.getArgument(0);
+            consumer.accept(bookDTO);
+            return null;
+        }).when(bookService).streamAllBooks(any(Consumer.class));
+
+        MvcResult mvcResult = mockMvc.perform(get("/books/streamAllBooks").accept(MediaType.parseMediaType(BookController.APPLICATION_SMILE_VALUE)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BookController.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<BookDTO> books = new SmileMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(books).containsExactly(bookDTO);
+    }
 }
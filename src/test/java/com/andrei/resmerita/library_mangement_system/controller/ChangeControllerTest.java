@@ -0,0 +1,130 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ChangeOffsetExpiredException;
+import com.andrei.resmerita.library_mangement_system.exception.GlobalExceptionHandler;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import com.andrei.resmerita.library_mangement_system.service.ChangeFeedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(ChangeController.class)
+@Import({GlobalExceptionHandler.class, SecurityConfig.class})
+class ChangeControllerTest {
+
+    private static final String BOOK_ID = "0192a8e4-7c1e-7f01-8a9b-2c3d4e5f6a7b";
+    private static final String AUTHOR_ID = "0192a8e4-7c1d-7a3b-9f2e-4b6d8c0e1f23";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeFeedService changeFeedService;
+
+    private ChangeFeedService.Subscription subscription;
+    private List<ChangeEventDTO> changes;
+
+    @BeforeEach
+    void setUp() {
+        subscription = mock(ChangeFeedService.Subscription.class);
+        when(changeFeedService.subscribe(any(), any())).thenReturn(subscription);
+        Instant occurredAt = Instant.parse("2024-07-01T12:00:00Z");
+        changes = List.of(
+                new ChangeEventDTO(6L, ChangeEvent.ResourceType.BOOK, BOOK_ID, ChangeEvent.Type.CREATED, occurredAt),
+                new ChangeEventDTO(7L, ChangeEvent.ResourceType.AUTHOR, AUTHOR_ID, ChangeEvent.Type.UPDATED, occurredAt));
+    }
+
+    @Test
+    @WithMockUser()
+    void testStreamChangesShouldSendServerSentEventsWithTheOffsetAsId() throws Exception {
+        MvcResult result = mockMvc.perform(get("/changes").param("after", "5").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        listener(5L).onChanges(changes);
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString())
+                .contains("id:6\nevent:change\ndata:{\"offset\":6,\"resourceType\":\"BOOK\",\"resourceId\":\"" + BOOK_ID + "\",\"type\":\"CREATED\"")
+                .contains("id:7\nevent:change\ndata:{\"offset\":7,\"resourceType\":\"AUTHOR\"");
+    }
+
+    @Test
+    @WithMockUser()
+    void testStreamChangesShouldSendOneJsonObjectPerLineForNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/changes").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        listener(null).onChanges(changes);
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(result.getResponse().getContentAsString().split("\n"))
+                .hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).startsWith("{\"offset\":6,\"resourceType\":\"BOOK\""),
+                        line -> assertThat(line).startsWith("{\"offset\":7,\"resourceType\":\"AUTHOR\""));
+    }
+
+    @Test
+    @WithMockUser()
+    void testStreamChangesShouldResumeFromLastEventIdOverTheOffsetParameter() throws Exception {
+        mockMvc.perform(get("/changes").param("after", "5").header(ChangeController.LAST_EVENT_ID, "9").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeedService).subscribe(eq(9L), any());
+    }
+
+    @Test
+    @WithMockUser()
+    void testStreamChangesShouldReturnGoneWhenTheOffsetIsNoLongerKept() throws Exception {
+        when(changeFeedService.subscribe(eq(1L), any())).thenThrow(new ChangeOffsetExpiredException("Changes after offset 1 are no longer kept, read the catalog again and follow the feed from its current end."));
+
+        mockMvc.perform(get("/changes").param("after", "1").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isGone())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorMessage").value("Changes after offset 1 are no longer kept, read the catalog again and follow the feed from its current end."));
+    }
+
+    @Test
+    void testStreamChangesShouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+
+        verify(changeFeedService, never()).subscribe(any(), any());
+    }
+
+    private ChangeFeedService.ChangeListener listener(Long after) {
+        ArgumentCaptor<ChangeFeedService.ChangeListener> listener = ArgumentCaptor.forClass(ChangeFeedService.ChangeListener.class);
+        if (after == null) {
+            verify(changeFeedService).subscribe(isNull(), listener.capture());
+        } else {
+            verify(changeFeedService).subscribe(eq(after), listener.capture());
+        }
+        return listener.getValue();
+    }
+}
@@ -0,0 +1,109 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts how many connections each request checks out of the pool, from the pool's own {@code hikaricp.connections.acquire}
+ * timer. A request should need at most one connection, and none when it is served from the caches. The change feed relay
+ * is off, so its own connections are not counted.
+ */
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
+@AutoConfigureMockMvc
+@WithMockUser
+class ConnectionAcquisitionTest {
+
+    private static final String AUTHOR_NAME = "Connection Author";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private AuthorDTO authorDTO;
+    private String authorId;
+
+    @BeforeEach
+    void setUp() {
+        authorDTO = Utils.createAuthorDTO(AUTHOR_NAME, "Bio");
+        if (!authorRepository.existsByName(AUTHOR_NAME)) {
+            authorService.saveAuthor(authorDTO);
+            bookService.saveBook(Utils.createBookDTO("Connection Book", "Description", "connection-1", authorDTO));
+        }
+        authorId = authorRepository.findByName(AUTHOR_NAME).orElseThrow().getId();
+    }
+
+    @Test
+    void readsShouldUseASingleConnection() throws Exception {
+        assertThat(connectionsAcquiredBy(get("/books/getAllBooks"))).isEqualTo(1);
+        assertThat(connectionsAcquiredBy(get("/authors/getAll"))).isEqualTo(1);
+        assertThat(connectionsAcquiredBy(get("/books/getBooksPage"))).isEqualTo(1);
+        assertThat(connectionsAcquiredBy(get("/authors/getAuthorDetails/" + authorId))).isEqualTo(1);
+    }
+
+    @Test
+    void cachedReadsShouldNotUseAConnection() throws Exception {
+        String bookId = bookRepository.findByIsbn("connection-1").orElseThrow().getId();
+        connectionsAcquiredBy(get("/books/getBook/" + bookId));
+
+        assertThat(connectionsAcquiredBy(get("/books/getBook/" + bookId))).isZero();
+    }
+
+    @Test
+    void writesShouldRunTheirChecksAndStatementsOnASingleConnection() throws Exception {
+        BookDTO bookDTO = Utils.createBookDTO("Another Book", "Description", "connection-" + System.nanoTime(), authorDTO);
+        assertThat(connectionsAcquiredBy(post("/books/create").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(bookDTO)))).isEqualTo(1);
+
+        String bookId = bookRepository.findByIsbn(bookDTO.getIsbn()).orElseThrow().getId();
+        bookDTO.setTitle("Renamed Book");
+        assertThat(connectionsAcquiredBy(put("/books/update/" + bookId).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(bookDTO)))).isEqualTo(1);
+    }
+
+    private long connectionsAcquiredBy(RequestBuilder request) throws Exception {
+        long before = acquisitions();
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        return acquisitions() - before;
+    }
+
+    private long acquisitions() {
+        return meterRegistry.get("hikaricp.connections.acquire").timer().count();
+    }
+}
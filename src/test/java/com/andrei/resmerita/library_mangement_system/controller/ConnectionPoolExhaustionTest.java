@@ -0,0 +1,46 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Holds every connection of a real pool while a request needs one. With delayed acquisition the request only waits for
+ * the pool at its first statement, and must still be answered with 503 rather than 500. The pool has two connections
+ * because Flyway needs both at startup.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "library.changes.relay.enabled=false"})
+@AutoConfigureMockMvc
+@WithMockUser
+class ConnectionPoolExhaustionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void requestShouldReturnServiceUnavailableWhenThePoolIsExhausted() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            mockMvc.perform(get("/books/getBooksPage"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.errorMessage", containsString("The service is busy")));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.config.ReactiveCatalogWebConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.service.ReactiveCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveCatalogController.class)
+@Import({ReactiveCatalogWebConfig.class, ReactiveCatalogControllerTest.SigningKeyConfig.class})
+class ReactiveCatalogControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveCatalogService reactiveCatalogService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    private BookDTO bookDTO;
+    private AuthorDTO authorDTO;
+
+    @BeforeEach
+    void setUp() {
+        bookDTO = new BookDTO("Harry Potter", "Fantasy novel", "1234567890", new AuthorDTO("J.K. Rowling", "British author", null, null));
+        authorDTO = new AuthorDTO("Jules Verne", "Journey to the Centre of the Earth.", null, 2L);
+    }
+
+    @Test
+    void testGetAllBooksShouldRequireAuthentication() {
+        webTestClient.get().uri("/reactive/books/getAllBooks").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        verifyNoInteractions(reactiveCatalogService);
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAllBooksShouldStreamNdjson() {
+        when(reactiveCatalogService.getAllBooks()).thenReturn(Flux.just(bookDTO, bookDTO));
+
+        webTestClient.get().uri("/reactive/books/getAllBooks").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(body -> {
+                    assertThat(body).startsWith("{\"title\":\"Harry Potter\"");
+                    assertThat(body.lines()).hasSize(2);
+                });
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAllAuthorsShouldStreamServerSentEventsWithBookCounts() {
+        when(reactiveCatalogService.getAllAuthors(false)).thenReturn(Flux.just(authorDTO));
+
+        webTestClient.get().uri("/reactive/authors/getAll").accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> assertThat(body).startsWith("data:{\"name\":\"Jules Verne\"").contains("\"bookCount\":2"));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldListBooksOnlyWhenAsked() {
+        AuthorDTO authorWithBooks = new AuthorDTO("Jules Verne", "Journey to the Centre of the Earth.", Set.of(new BookDTO("Around the World in Eighty Days", "Adventure novel", "0987654321", null)), 1L);
+        when(reactiveCatalogService.getAuthorById("1", true)).thenReturn(Mono.just(authorWithBooks));
+
+        webTestClient.get().uri("/reactive/authors/getAuthorById/1?includeBooks=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.books[0].isbn").isEqualTo("0987654321");
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetBookByIdShouldReturnBook() {
+        when(reactiveCatalogService.getBookById("1")).thenReturn(Mono.just(bookDTO));
+
+        webTestClient.get().uri("/reactive/books/getBook/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.isbn").isEqualTo("1234567890")
+                .jsonPath("$.author.name").isEqualTo("J.K. Rowling");
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetAuthorByIdShouldReturnNotFoundWhenMissing() {
+        when(reactiveCatalogService.getAuthorById("missing", false)).thenReturn(Mono.error(new ResourceNotFoundException("Author not found")));
+
+        webTestClient.get().uri("/reactive/authors/getAuthorById/missing")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Author not found");
+    }
+
+    @TestConfiguration
+    static class SigningKeyConfig {
+
+        @Bean
+        SecretKey tokenSigningKey() {
+            return new SecretKeySpec(new byte[32], "HmacSHA256");
+        }
+    }
+}
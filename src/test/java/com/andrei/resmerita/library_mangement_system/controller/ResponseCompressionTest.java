@@ -0,0 +1,57 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compression is applied by the embedded server, so it is checked over a real connection rather than through MockMvc.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"library.reactive.server.port=0", "library.changes.relay.enabled=false"})
+class ResponseCompressionTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void largeJsonResponsesShouldBeGzippedWhenTheClientAcceptsIt() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get("/v3/api-docs", "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            String json = new String(inputStream.readAllBytes());
+            assertThat(json).startsWith("{").contains("/books/getAllBooks");
+            assertThat(response.body().length).isLessThan(json.length() / 2);
+        }
+    }
+
+    @Test
+    void responsesShouldNotBeCompressedWithoutAcceptEncoding() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get("/v3/api-docs", null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
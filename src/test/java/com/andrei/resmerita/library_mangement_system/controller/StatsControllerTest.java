@@ -0,0 +1,80 @@
+package com.andrei.resmerita.library_mangement_system.controller;
+
+import com.andrei.resmerita.library_mangement_system.config.SecurityConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CatalogStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.exception.GlobalExceptionHandler;
+import com.andrei.resmerita.library_mangement_system.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(StatsController.class)
+@Import({GlobalExceptionHandler.class, SecurityConfig.class})
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StatsService statsService;
+
+    @Test
+    @WithMockUser()
+    void testGetCatalogStatsShouldReturnStats() throws Exception {
+        CatalogStatsDTO stats = new CatalogStatsDTO(7, 2, List.of(new AuthorStatsDTO("a-1", "Jules Verne", 5)), List.of(new BookSummaryDTO("b-1", "Twenty Thousand Leagues", "1234567890", "a-1", "Jules Verne")));
+        when(statsService.getCatalogStats(3, 10)).thenReturn(stats);
+
+        mockMvc.perform(get("/stats/getCatalogStats").param("top", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalBooks").value(7))
+                .andExpect(jsonPath("$.topAuthors[0].bookCount").value(5))
+                .andExpect(jsonPath("$.recentBooks[0].title").value("Twenty Thousand Leagues"));
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetCatalogStatsShouldReturnBadRequestWhenTopIsTooLarge() throws Exception {
+        mockMvc.perform(get("/stats/getCatalogStats").param("top", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(statsService, never()).getCatalogStats(anyInt(), anyInt());
+    }
+
+    @Test
+    @WithMockUser()
+    void testGetBooksPerAuthorShouldReturnPage() throws Exception {
+        when(statsService.getBooksPerAuthor(isNull(), eq(50))).thenReturn(new CursorPageDTO<>(List.of(new AuthorStatsDTO("a-1", "Jules Verne", 5)), "next"));
+
+        mockMvc.perform(get("/stats/getBooksPerAuthor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].authorName").value("Jules Verne"))
+                .andExpect(jsonPath("$.nextPageToken").value("next"));
+    }
+
+    @Test
+    void testGetCatalogStatsShouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/stats/getCatalogStats"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,64 @@
+package com.andrei.resmerita.library_mangement_system.mapper;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookMapperTest {
+
+    private final BookMapper bookMapper = BookMapper.INSTANCE;
+    private final AuthorMapper authorMapper = AuthorMapper.INSTANCE;
+
+    private Author author;
+    private Book book;
+    private Book book2;
+
+    @BeforeEach
+    void setUp() {
+        author = Utils.createAuthor("Andrei Resmerita", "Overlord");
+        author.setId("author-1");
+        book = Utils.createBook("Galactic Chronicles", "Epic saga", "1234567890", author);
+        book.setId("book-1");
+        book2 = Utils.createBook("Galactic Chronicles II", "Epic saga", "1234567891", author);
+        book2.setId("book-2");
+        // Wire both sides of the association, as Hibernate does when the graph is loaded
+        author.setBooks(new HashSet<>(Set.of(book, book2)));
+    }
+
+    @Test
+    void toBookDTOsShouldMapSharedAuthorOnce() {
+        List<BookDTO> bookDTOs = bookMapper.toBookDTOs(List.of(book, book2), new CycleAvoidingMappingContext());
+
+        assertThat(bookDTOs).hasSize(2);
+        assertThat(bookDTOs.get(0).getAuthor()).isSameAs(bookDTOs.get(1).getAuthor());
+        assertThat(bookDTOs.get(0).getAuthor().getBooks()).isNull();
+    }
+
+    @Test
+    void toAuthorDTOShouldNotMapBooksBackToTheirAuthor() {
+        AuthorDTO authorDTO = authorMapper.toAuthorDTO(author);
+
+        assertThat(authorDTO.getBooks()).hasSize(2).allSatisfy(bookDTO -> assertThat(bookDTO.getAuthor()).isNull());
+    }
+
+    @Test
+    void toBookSummaryDTOShouldCarryOnlyAuthorIdAndName() {
+        BookSummaryDTO summary = bookMapper.toBookSummaryDTO(book);
+
+        assertThat(summary.getId()).isEqualTo("book-1");
+        assertThat(summary.getTitle()).isEqualTo(book.getTitle());
+        assertThat(summary.getAuthorId()).isEqualTo("author-1");
+        assertThat(summary.getAuthorName()).isEqualTo(author.getName());
+    }
+}
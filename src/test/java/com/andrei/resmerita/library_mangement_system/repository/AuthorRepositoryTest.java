@@ -38,4 +38,15 @@ class AuthorRepositoryTest {
         Optional<Author> found = authorRepository.findByName("nonexistent-name");
         assertThat(found).isNotPresent();
     }
+
+    @Test
+    public void whenExistsByName_thenAnswerFromIndex() {
+        Author author = new Author();
+        author.setName("existing-name");
+        author.setBio("author-bio");
+        authorRepository.save(author);
+
+        assertThat(authorRepository.existsByName("existing-name")).isTrue();
+        assertThat(authorRepository.existsByName("nonexistent-name")).isFalse();
+    }
 }
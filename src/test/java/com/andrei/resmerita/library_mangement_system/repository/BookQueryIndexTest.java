@@ -0,0 +1,60 @@
+package com.andrei.resmerita.library_mangement_system.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans H2 picks for prefix filters of the book query (see BookSpecifications), so a dropped or reordered
+ * index shows up as a test failure rather than as a slow endpoint. H2 plans without statistics, so the range and sort
+ * shapes whose plan depends on data distribution are covered by BookQueryBenchmark instead.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class BookQueryIndexTest {
+
+    private static final int AUTHORS = 50;
+    private static final int BOOKS_PER_AUTHOR = 40;
+    private static final String SELECT = "select b.id, b.title, a.name from book b join author a on a.id = b.author_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> authors = new ArrayList<>();
+        List<Object[]> books = new ArrayList<>();
+        for (int a = 0; a < AUTHORS; a++) {
+            UUID authorId = UUID.randomUUID();
+            authors.add(new Object[]{authorId, "Author " + a});
+            for (int b = 0; b < BOOKS_PER_AUTHOR; b++) {
+                books.add(new Object[]{UUID.randomUUID(), "Title " + a + "-" + b, "isbn-" + a + "-" + b, authorId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into author (id, name, bio, version) values (?, ?, 'Bio', 0)", authors);
+        jdbcTemplate.batchUpdate("insert into book (id, title, isbn, author_id, version, created_at) values (?, ?, ?, ?, 0, current_timestamp)", books);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "where b.title like 'Title 1%' order by b.title, b.id                                   | IDX_BOOK_TITLE",
+            "where b.isbn like 'isbn-1%' order by b.isbn, b.id                                      | UK_BOOK_ISBN",
+            "where b.author_id = cast('00000000-0000-0000-0000-000000000000' as uuid) and b.title like 'Title%' order by b.title, b.id | IDX_BOOK_AUTHOR_TITLE"
+    })
+    void bookQueryShouldUseIndex(String clause, String index) {
+        String plan = jdbcTemplate.queryForObject("explain " + SELECT + clause + " fetch first 50 rows only", String.class);
+
+        assertThat(plan).containsIgnoringCase("PUBLIC." + index);
+    }
+}
@@ -6,11 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -54,4 +60,109 @@ public class BookRepositoryTest {
         // then
         assertThat(found).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void whenFindByIdGreaterThan_thenReturnNextKeysetPageInIdOrder() {
+        // given
+        Author author = new Author();
+        author.setName("George R. R. Martin");
+        author.setBio("American novelist.");
+        authorRepository.save(author);
+
+        for (int i = 0; i < 5; i++) {
+            Book book = new Book();
+            book.setTitle("Title " + i);
+            book.setIsbn("isbn-" + i);
+            book.setAuthor(author);
+            bookRepository.save(book);
+        }
+
+        // when
+        List<Book> firstPage = bookRepository.findAllByOrderByIdAsc(Limit.of(3));
+        List<Book> secondPage = bookRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(2).getId(), Limit.of(3));
+
+        // then
+        assertThat(firstPage).hasSize(3).extracting(Book::getId).isSorted();
+        assertThat(secondPage).hasSize(2).extracting(Book::getId).isSorted()
+                .allSatisfy(id -> assertThat(id).isGreaterThan(firstPage.get(2).getId()));
+    }
+
+    @Test
+    public void whenExistsByIsbn_thenAnswerFromIndex() {
+        // given
+        Author author = new Author();
+        author.setName("Terry Pratchett");
+        author.setBio("English author of fantasy novels.");
+        authorRepository.save(author);
+
+        Book book = new Book();
+        book.setTitle("The Colour of Magic");
+        book.setIsbn("9780861403240");
+        book.setAuthor(author);
+        bookRepository.save(book);
+
+        // when / then
+        assertThat(bookRepository.existsByIsbn("9780861403240")).isTrue();
+        assertThat(bookRepository.existsByIsbn("nonexistent-isbn")).isFalse();
+    }
+
+    @Test
+    public void whenSaveDuplicateIsbn_thenUniqueConstraintIsViolated() {
+        // given
+        Author author = new Author();
+        author.setName("Ursula K. Le Guin");
+        author.setBio("American author.");
+        authorRepository.save(author);
+
+        Book book = new Book();
+        book.setTitle("A Wizard of Earthsea");
+        book.setIsbn("9780547773742");
+        book.setAuthor(author);
+        bookRepository.saveAndFlush(book);
+
+        Book duplicate = new Book();
+        duplicate.setTitle("A Wizard of Earthsea, again");
+        duplicate.setIsbn("9780547773742");
+        duplicate.setAuthor(author);
+
+        // when / then
+        assertThatThrownBy(() -> bookRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .cause()
+                .isInstanceOfSatisfying(org.hibernate.exception.ConstraintViolationException.class,
+                        violation -> assertThat(violation.getConstraintName()).containsIgnoringCase("uk_book_isbn"));
+    }
+
+    @Test
+    public void whenSaveBooks_thenIdsAreTimeOrderedUuidsInInsertOrder() {
+        // given
+        Author author = new Author();
+        author.setName("Iain M. Banks");
+        author.setBio("Scottish author.");
+        authorRepository.save(author);
+
+        // when
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Book book = new Book();
+            book.setTitle("Culture " + i);
+            book.setIsbn("culture-" + i);
+            book.setAuthor(author);
+            ids.add(bookRepository.saveAndFlush(book).getId());
+        }
+
+        // then
+        assertThat(ids).isSorted().doesNotHaveDuplicates()
+                .allSatisfy(id -> assertThat(UUID.fromString(id).version()).isEqualTo(7));
+        assertThat(bookRepository.findAllByOrderByIdAsc(Limit.of(50))).extracting(Book::getId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    public void whenFindByMalformedId_thenReturnEmpty() {
+        // when
+        Optional<Book> found = bookRepository.findById("not-a-uuid");
+
+        // then
+        assertThat(found).isNotPresent();
+    }
+}
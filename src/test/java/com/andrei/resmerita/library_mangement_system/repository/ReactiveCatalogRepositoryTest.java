@@ -0,0 +1,112 @@
+package com.andrei.resmerita.library_mangement_system.repository;
+
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Rows are written through JPA and read back over R2DBC, which checks that both drivers see the same in-memory database.
+ */
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
+class ReactiveCatalogRepositoryTest {
+
+    @Autowired
+    private ReactiveCatalogRepository reactiveCatalogRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Author author;
+    private Author authorWithoutBooks;
+    private String bookId;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(Utils.createAuthor("Jules Verne", "French novelist"));
+        authorWithoutBooks = authorRepository.save(Utils.createAuthor("Mary Shelley", "English novelist"));
+        bookId = bookRepository.save(Utils.createBook("Around the World in Eighty Days", "Adventure novel", "reactive-1", author)).getId();
+        bookRepository.save(Utils.createBook("Twenty Thousand Leagues Under the Seas", "Adventure novel", "reactive-2", author));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void findAllBooksShouldStreamBooksWithTheirAuthor() {
+        StepVerifier.create(reactiveCatalogRepository.findAllBooks())
+                .recordWith(ArrayList::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(books -> assertThat(books).allSatisfy(book -> assertThat(book.getAuthor().getName()).isEqualTo("Jules Verne")))
+                .verifyComplete();
+    }
+
+    @Test
+    void findBookByIdShouldReturnTheBook() {
+        StepVerifier.create(reactiveCatalogRepository.findBookById(bookId))
+                .assertNext(book -> {
+                    assertThat(book.getIsbn()).isEqualTo("reactive-1");
+                    assertThat(book.getAuthor().getBio()).isEqualTo("French novelist");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findBookByIdShouldCompleteEmptyWhenMissing() {
+        StepVerifier.create(reactiveCatalogRepository.findBookById("missing")).verifyComplete();
+    }
+
+    @Test
+    void findAllAuthorsShouldCountBooksWithoutListingThem() {
+        StepVerifier.create(reactiveCatalogRepository.findAllAuthors().collectList())
+                .assertNext(authors -> {
+                    assertThat(authors).allSatisfy(a -> assertThat(a.getBooks()).isNull());
+                    assertThat(authors).extracting("name", "bookCount").containsExactlyInAnyOrder(tuple("Jules Verne", 2L), tuple("Mary Shelley", 0L));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAuthorByIdShouldReturnTheAuthorWithBookCount() {
+        StepVerifier.create(reactiveCatalogRepository.findAuthorById(author.getId()))
+                .assertNext(found -> assertThat(found.getBookCount()).isEqualTo(2))
+                .verifyComplete();
+        StepVerifier.create(reactiveCatalogRepository.findAuthorById("missing")).verifyComplete();
+    }
+
+    @Test
+    void findAllAuthorsWithBooksShouldGroupBooksUnderEachAuthor() {
+        StepVerifier.create(reactiveCatalogRepository.findAllAuthorsWithBooks().collectList())
+                .assertNext(authors -> {
+                    assertThat(authors).hasSize(2);
+                    assertThat(authors).filteredOn(a -> a.getName().equals("Jules Verne")).singleElement().satisfies(a -> assertThat(a.getBooks()).hasSize(2));
+                    assertThat(authors).filteredOn(a -> a.getName().equals("Mary Shelley")).singleElement().satisfies(a -> assertThat(a.getBooks()).isEmpty());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAuthorWithBooksByIdShouldReturnTheAuthorWithBooks() {
+        StepVerifier.create(reactiveCatalogRepository.findAuthorWithBooksById(author.getId()))
+                .assertNext(found -> assertThat(found.getBooks()).extracting("isbn").containsExactlyInAnyOrder("reactive-1", "reactive-2"))
+                .verifyComplete();
+        StepVerifier.create(reactiveCatalogRepository.findAuthorWithBooksById(authorWithoutBooks.getId()))
+                .assertNext(found -> assertThat(found.getBooks()).isEmpty())
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,93 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({AuthorServiceImpl.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class AuthorBatchSaveTest {
+
+    private static final int BOOKS_PER_AUTHOR = 60;
+
+    @Autowired
+    private AuthorServiceImpl authorService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        Author author = testEntityManager.persist(Utils.createAuthor("Andrei Resmerita", "Overlord"));
+        testEntityManager.persist(Utils.createBook("Galactic Chronicles", "Epic saga", "existing-isbn", author));
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void saveAuthorsShouldLinkNewBooksAndLeaveExistingOnes() {
+        AuthorDTO authorDTO = Utils.createAuthorDTO("Ursula K. Le Guin", "American author");
+        authorDTO.getBooks().add(Utils.createBookDTO("The Dispossessed", "An ambiguous utopia", "new-isbn", null));
+        authorDTO.getBooks().add(Utils.createBookDTO("Galactic Chronicles", "Epic saga", "existing-isbn", null));
+
+        AuthorDTO savedAuthor = authorService.saveAuthor(authorDTO);
+
+        assertThat(savedAuthor.getBooks()).extracting(BookDTO::getIsbn).containsExactly("new-isbn");
+        assertThat(bookRepository.findByIsbn("new-isbn")).map(Book::getAuthor).map(Author::getName).contains("Ursula K. Le Guin");
+        assertThat(bookRepository.findByIsbn("existing-isbn")).map(Book::getAuthor).map(Author::getName).contains("Andrei Resmerita");
+    }
+
+    @Test
+    void saveAuthorsShouldResolveIsbnsWithOneQueryAndBatchTheInserts() {
+        List<AuthorDTO> authorDTOs = List.of(authorWithBooks("First Author"), authorWithBooks("Second Author"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<AuthorDTO> savedAuthors = authorService.saveAuthors(authorDTOs);
+
+        assertThat(savedAuthors).allSatisfy(author -> assertThat(author.getBooks()).hasSize(BOOKS_PER_AUTHOR));
+        // One ISBN lookup and one insert statement per table, change events included, executed in JDBC batches, instead of a
+        // lookup and an insert per book
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(bookRepository.count()).isEqualTo(1 + 2 * BOOKS_PER_AUTHOR);
+    }
+
+    private static AuthorDTO authorWithBooks(String name) {
+        Set<BookDTO> books = new HashSet<>();
+        for (int i = 0; i < BOOKS_PER_AUTHOR; i++) {
+            books.add(Utils.createBookDTO(name + " " + i, "Description", name + "-isbn-" + i, null));
+        }
+        return Utils.createAuthorDTO(name, "Bio", books);
+    }
+}
@@ -1,13 +1,16 @@
 package com.andrei.resmerita.library_mangement_system.service.impl;
 
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
-import com.andrei.resmerita.library_mangement_system.exception.AuthorAlreadyExistsException;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
 import com.andrei.resmerita.library_mangement_system.mapper.AuthorMapper;
 import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
 import com.andrei.resmerita.library_mangement_system.model.Author;
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
 import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
 import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
 import com.andrei.resmerita.library_mangement_system.util.Utils;
@@ -18,7 +21,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -44,6 +50,12 @@ class AuthorServiceImplTest {
     @Spy
     private BookMapper bookMapper;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private ChangeLog changeLog;
+
     @InjectMocks
     private AuthorServiceImpl authorService;
 
@@ -63,20 +75,23 @@ class AuthorServiceImplTest {
     @Test
     void testSaveAuthorShouldReturnSavedAuthor() {
         when(authorMapper.toAuthor(authorDTO)).thenReturn(author);
-        when(authorRepository.save(author)).thenReturn(author);
         when(authorMapper.toAuthorDTO(author)).thenReturn(authorDTO);
 
         AuthorDTO savedAuthor = authorService.saveAuthor(authorDTO);
 
         assertThat(savedAuthor.getName()).isEqualTo(authorDTO.getName());
-        verify(authorRepository, times(1)).save(author);
+        verify(authorRepository, times(1)).saveAll(List.of(author));
+        verify(authorRepository, times(1)).flush();
+        verify(bookRepository, never()).findExistingIsbns(any());
     }
 
     @Test
     void testSaveAuthorWithExistingNameShouldThrowException() {
-        when(authorRepository.findByName(anyString())).thenReturn(Optional.of(new Author()));
+        when(authorMapper.toAuthor(authorDTO)).thenReturn(author);
+        doThrow(new DataIntegrityViolationException("uk_author_name")).when(authorRepository).flush();
 
-        assertThrows(AuthorAlreadyExistsException.class, () -> authorService.saveAuthor(authorDTO));
+        assertThrows(DataIntegrityViolationException.class, () -> authorService.saveAuthor(authorDTO));
+        verify(authorRepository, never()).findByName(anyString());
     }
 
     @Test
@@ -86,16 +101,38 @@ class AuthorServiceImplTest {
         authorDTO.setBooks(bookDTOs);
 
         when(authorMapper.toAuthor(authorDTO)).thenReturn(author);
+        when(bookRepository.findExistingIsbns(Set.of(bookDTO.getIsbn()))).thenReturn(Set.of());
         when(bookMapper.toBook(bookDTO)).thenReturn(book);
-        when(authorRepository.save(author)).thenReturn(author);
-        when(bookRepository.save(book)).thenReturn(book);
         when(authorMapper.toAuthorDTO(author)).thenReturn(authorDTO);
 
         AuthorDTO savedAuthor = authorService.saveAuthor(authorDTO);
 
         assertThat(savedAuthor.getBooks()).hasSize(1);
-        verify(authorRepository, times(1)).save(author);
-        verify(bookRepository, times(1)).save(book);
+        assertThat(book.getAuthor()).isSameAs(author);
+        assertThat(author.getBooks()).containsExactly(book);
+        verify(bookRepository, times(1)).saveAll(List.of(book));
+        verify(bookRepository, never()).findByIsbn(anyString());
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void testSaveAuthorsShouldSkipBooksWhoseIsbnExists() {
+        BookDTO newBookDTO = Utils.createBookDTO("Nebula Tales", "Short stories", "0987654321", authorDTO);
+        Book newBook = Utils.createBook("Nebula Tales", "Short stories", "0987654321", null);
+        authorDTO.setBooks(new HashSet<>(List.of(bookDTO, newBookDTO)));
+
+        when(authorMapper.toAuthor(authorDTO)).thenReturn(author);
+        when(bookRepository.findExistingIsbns(Set.of(bookDTO.getIsbn(), newBookDTO.getIsbn()))).thenReturn(Set.of(bookDTO.getIsbn()));
+        when(bookMapper.toBook(newBookDTO)).thenReturn(newBook);
+        when(authorMapper.toAuthorDTO(author)).thenReturn(authorDTO);
+
+        authorService.saveAuthors(List.of(authorDTO));
+
+        assertThat(newBook.getAuthor()).isSameAs(author);
+        verify(bookMapper, never()).toBook(bookDTO);
+        verify(bookRepository, times(1)).findExistingIsbns(any());
+        verify(bookRepository, times(1)).saveAll(List.of(newBook));
+        verify(bookSearchIndex, times(1)).index(newBook);
     }
 
     @Test
@@ -107,15 +144,17 @@ class AuthorServiceImplTest {
 
         when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
         when(authorRepository.save(author)).thenReturn(author);
-        when(authorMapper.toAuthorDTO(author)).thenReturn(authorDTO);
+        when(bookRepository.countByAuthorId(authorId)).thenReturn(0L);
+        when(authorMapper.toAuthorDTOWithoutBooks(author, 0L)).thenReturn(authorDTO);
 
         // when
-        AuthorDTO updatedAuthor = authorService.updateAuthor(authorId, authorDTO);
+        AuthorDTO updatedAuthor = authorService.updateAuthor(authorId, authorDTO, null);
 
         // then
         assertThat(updatedAuthor.getBio()).isEqualTo(authorDTO.getBio());
         verify(authorRepository, times(1)).save(author);
         verify(bookRepository, never()).save(any(Book.class)); // Ensure no book update is called
+        verify(bookSearchIndex, times(1)).renameAuthor(authorId, authorDTO.getName());
     }
 
     @Test
@@ -127,24 +166,43 @@ class AuthorServiceImplTest {
         when(authorRepository.findById(authorId)).thenReturn(Optional.empty());
 
         // when / then
-        assertThrows(ResourceNotFoundException.class, () -> authorService.updateAuthor(authorId, authorDTO));
+        assertThrows(ResourceNotFoundException.class, () -> authorService.updateAuthor(authorId, authorDTO, null));
     }
 
     @Test
-    void testGetAuthorByIdShouldReturnAuthor() {
+    void testGetAuthorByIdShouldReturnAuthorWithBookCount() {
         // given
         String authorId = "1";
         author.setId(authorId);
 
         when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
+        when(bookRepository.countByAuthorId(authorId)).thenReturn(3L);
+        when(authorMapper.toAuthorDTOWithoutBooks(author, 3L)).thenReturn(authorDTO);
+
+        // when
+        AuthorDTO foundAuthor = authorService.getAuthorById(authorId, false).getContent();
+
+        // then
+        assertThat(foundAuthor.getName()).isEqualTo(author.getName());
+        verify(authorRepository, never()).findWithBooksById(anyString());
+    }
+
+    @Test
+    void testGetAuthorByIdWithBooksShouldFetchTheBooks() {
+        // given
+        String authorId = "1";
+        author.setId(authorId);
+
+        when(authorRepository.findWithBooksById(authorId)).thenReturn(Optional.of(author));
         when(authorMapper.toAuthorDTO(author)).thenReturn(authorDTO);
 
         // when
-        AuthorDTO foundAuthor = authorService.getAuthorById(authorId);
+        AuthorDTO foundAuthor = authorService.getAuthorById(authorId, true).getContent();
 
         // then
         assertThat(foundAuthor.getName()).isEqualTo(author.getName());
-        verify(authorRepository, times(1)).findById(authorId);
+        verify(authorRepository, times(1)).findWithBooksById(authorId);
+        verify(bookRepository, never()).countByAuthorId(anyString());
     }
 
     @Test
@@ -153,9 +211,11 @@ class AuthorServiceImplTest {
         String authorId = "1";
 
         when(authorRepository.findById(authorId)).thenReturn(Optional.empty());
+        when(authorRepository.findWithBooksById(authorId)).thenReturn(Optional.empty());
 
         // when / then
-        assertThrows(ResourceNotFoundException.class, () -> authorService.getAuthorById(authorId));
+        assertThrows(ResourceNotFoundException.class, () -> authorService.getAuthorById(authorId, false));
+        assertThrows(ResourceNotFoundException.class, () -> authorService.getAuthorById(authorId, true));
     }
 
     @Test
@@ -163,11 +223,15 @@ class AuthorServiceImplTest {
         // given
         String authorId = "1";
 
+        author.setId(authorId);
+        when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
+
         // when
         authorService.deleteAuthor(authorId);
 
         // then
-        verify(authorRepository, times(1)).deleteById(authorId);
+        verify(authorRepository, times(1)).delete(author);
+        verify(changeLog, times(1)).record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.DELETED, List.of(authorId));
     }
 
     @Test
@@ -175,13 +239,14 @@ class AuthorServiceImplTest {
         // given
         String authorId = "1";
 
-        doNothing().when(authorRepository).deleteById(authorId);
+        when(authorRepository.findById(authorId)).thenReturn(Optional.empty());
 
         // when
         authorService.deleteAuthor(authorId);
 
         // then
-        verify(authorRepository, times(1)).deleteById(authorId);
+        verify(authorRepository, never()).delete(any(Author.class));
+        verifyNoInteractions(changeLog);
     }
 
     @Test
@@ -190,14 +255,63 @@ class AuthorServiceImplTest {
         Author author2 = Utils.createAuthor("Jane Doe", "Mystery Writer");
         List<Author> authors = List.of(author1, author2);
 
+        author1.setId("1");
+        author2.setId("2");
+
         when(authorRepository.findAll()).thenReturn(authors);
-        when(authorMapper.toAuthorDTO(author1)).thenReturn(Utils.createAuthorDTO("Andrei Resmerita", "Overlord"));
-        when(authorMapper.toAuthorDTO(author2)).thenReturn(Utils.createAuthorDTO("Jane J", "Mystery Writer"));
+        // Authors without books still get a count of zero
+        when(authorRepository.findBookCountsOrderByIdAsc(Limit.unlimited())).thenReturn(List.of(new AuthorStatsDTO("1", author1.getName(), 4)));
+        when(authorMapper.toAuthorDTOWithoutBooks(author1, 4L)).thenReturn(Utils.createAuthorDTO("Andrei Resmerita", "Overlord"));
+        when(authorMapper.toAuthorDTOWithoutBooks(author2, 0L)).thenReturn(Utils.createAuthorDTO("Jane J", "Mystery Writer"));
 
-        List<AuthorDTO> authorDTOs = authorService.getAllAuthors();
+        List<AuthorDTO> authorDTOs = authorService.getAllAuthors(false);
 
         assertThat(authorDTOs).hasSize(2).extracting(AuthorDTO::getName).contains("Andrei Resmerita", "Jane J");
         verify(authorRepository, times(1)).findAll();
 
     }
+
+    @Test
+    void testGetAuthorDetailsShouldReturnBookCountAndFirstPageOfBooks() {
+        String authorId = "1";
+        author.setId(authorId);
+        book.setId("10");
+        Book book2 = Utils.createBook("A Game of Thrones", "Epic saga", "9780553103540", author);
+        book2.setId("11");
+        List<Book> books = new ArrayList<>(List.of(book, book2));
+        BookSummaryDTO summary = new BookSummaryDTO("10", book.getTitle(), book.getIsbn(), authorId, author.getName());
+
+        when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
+        when(bookRepository.findByAuthorIdOrderByIdAsc(eq(authorId), any())).thenReturn(books);
+        when(bookRepository.countByAuthorId(authorId)).thenReturn(2L);
+        when(authorMapper.toAuthorDetailDTO(author)).thenReturn(new AuthorDetailDTO(authorId, author.getName(), author.getBio(), 0, null));
+        when(bookMapper.toBookSummaryDTOs(List.of(book))).thenReturn(List.of(summary));
+
+        AuthorDetailDTO authorDetail = authorService.getAuthorDetails(authorId, null, 1);
+
+        assertThat(authorDetail.getBookCount()).isEqualTo(2);
+        assertThat(authorDetail.getBooks().getContent()).containsExactly(summary);
+        assertThat(authorDetail.getBooks().getNextPageToken()).isNotNull();
+    }
+
+    @Test
+    void testGetAuthorBooksShouldOnlyLookUpTheAuthorForAnEmptyPage() {
+        book.setId("10");
+        BookSummaryDTO summary = new BookSummaryDTO("10", book.getTitle(), book.getIsbn(), "1", author.getName());
+        when(bookRepository.findByAuthorIdOrderByIdAsc(eq("1"), any())).thenReturn(new ArrayList<>(List.of(book)));
+        when(bookMapper.toBookSummaryDTOs(List.of(book))).thenReturn(List.of(summary));
+        when(bookRepository.findByAuthorIdOrderByIdAsc(eq("2"), any())).thenReturn(new ArrayList<>());
+        when(authorRepository.existsById("2")).thenReturn(false);
+
+        assertThat(authorService.getAuthorBooks("1", null, 20).getContent()).containsExactly(summary);
+        assertThrows(ResourceNotFoundException.class, () -> authorService.getAuthorBooks("2", null, 20));
+        verify(authorRepository, never()).existsById("1");
+    }
+
+    @Test
+    void testGetAuthorDetailsOfNonExistingAuthorShouldThrowException() {
+        when(authorRepository.findById("1")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> authorService.getAuthorDetails("1", null, 20));
+    }
 }
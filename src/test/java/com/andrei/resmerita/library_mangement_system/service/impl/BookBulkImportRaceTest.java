@@ -0,0 +1,111 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Runs the importer without a surrounding test transaction, so that every chunk commits on its own like it does in
+ * production, and inserts one of the imported ISBNs from another transaction right after the chunk has checked it.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "library.bulk.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class BookBulkImportRaceTest {
+
+    @Autowired
+    private BookBulkImporter bookBulkImporter;
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Author author;
+    private AuthorDTO authorDTO;
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        // Unique per test, since nothing is rolled back
+        suffix = String.valueOf(System.nanoTime());
+        author = authorRepository.save(Utils.createAuthor("Author " + suffix, "Bio"));
+        authorDTO = Utils.createAuthorDTO(author.getName(), author.getBio());
+    }
+
+    @Test
+    void importBooksShouldReportAnIsbnInsertedConcurrentlyAsDuplicateAndKeepTheOtherChunks() {
+        String racedIsbn = "raced-isbn-" + suffix;
+        AtomicBoolean raced = new AtomicBoolean();
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // The lookup of a repository spy cannot call the real method, so it queries the ISBNs itself
+        doAnswer(invocation -> {
+            Collection<String> isbns = invocation.getArgument(0);
+            Object existingIsbns = new HashSet<>(entityManager.createQuery("select b.isbn from Book b where b.isbn in :isbns", String.class).setParameter("isbns", isbns).getResultList());
+            if (isbns.contains(racedIsbn) && raced.compareAndSet(false, true)) {
+                concurrentTransaction.executeWithoutResult(status -> bookRepository.save(Utils.createBook("Concurrent Book", "Description", racedIsbn, author)));
+            }
+            return existingIsbns;
+        }).when(bookRepository).findExistingIsbns(anyCollection());
+
+        List<BulkResultDTO> results = bookBulkImporter.importBooks(List.of(
+                bookDTO("isbn-1-" + suffix),
+                bookDTO("isbn-2-" + suffix),
+                bookDTO(racedIsbn),
+                bookDTO("isbn-3-" + suffix)));
+
+        assertThat(results).extracting(BulkResultDTO::getStatus).containsExactly(
+                BulkResultDTO.Status.CREATED,
+                BulkResultDTO.Status.CREATED,
+                BulkResultDTO.Status.DUPLICATE,
+                BulkResultDTO.Status.CREATED);
+        assertThat(results).extracting(BulkResultDTO::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(bookRepository.findByIsbn(racedIsbn)).map(Book::getTitle).contains("Concurrent Book");
+        assertThat(bookRepository.findByIsbn("isbn-3-" + suffix)).isPresent();
+    }
+
+    private BookDTO bookDTO(String isbn) {
+        return Utils.createBookDTO("Imported Book", "Description", isbn, authorDTO);
+    }
+}
@@ -0,0 +1,101 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "library.bulk.chunk-size=50"})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class BookBulkImporterTest {
+
+    @Autowired
+    private BookBulkImporter bookBulkImporter;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AuthorDTO authorDTO;
+
+    @BeforeEach
+    void setUp() {
+        Author author = testEntityManager.persist(Utils.createAuthor("Andrei Resmerita", "Overlord"));
+        testEntityManager.persist(Utils.createBook("Galactic Chronicles", "Epic saga", "existing-isbn", author));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        authorDTO = Utils.createAuthorDTO(author.getName(), author.getBio());
+    }
+
+    @Test
+    void importBooksShouldReportOutcomeOfEveryRow() {
+        List<BookDTO> rows = List.of(
+                Utils.createBookDTO("New Book", "Description", "new-isbn", authorDTO),
+                Utils.createBookDTO("Existing Book", "Description", "existing-isbn", authorDTO),
+                Utils.createBookDTO("Repeated Book", "Description", "new-isbn", authorDTO),
+                Utils.createBookDTO("Orphan Book", "Description", "orphan-isbn", Utils.createAuthorDTO("Unknown Author", "Bio")),
+                Utils.createBookDTO("", "Description", "invalid-isbn", authorDTO));
+
+        List<BulkResultDTO> results = bookBulkImporter.importBooks(rows);
+
+        assertThat(results).extracting(BulkResultDTO::getStatus).containsExactly(
+                BulkResultDTO.Status.CREATED,
+                BulkResultDTO.Status.DUPLICATE,
+                BulkResultDTO.Status.DUPLICATE,
+                BulkResultDTO.Status.AUTHOR_NOT_FOUND,
+                BulkResultDTO.Status.INVALID);
+        assertThat(results).extracting(BulkResultDTO::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(4).getMessage()).contains("title");
+        assertThat(bookRepository.findByIsbn("new-isbn")).map(Book::getTitle).contains("New Book");
+    }
+
+    @Test
+    void importBooksShouldResolveEachChunkWithSetBasedQueriesAndBatchedInserts() {
+        List<BookDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            rows.add(Utils.createBookDTO("Title " + i, "Description", "isbn-" + i, authorDTO));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BulkResultDTO> results = bookBulkImporter.importBooks(rows);
+
+        assertThat(results).hasSize(120).allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(BulkResultDTO.Status.CREATED));
+        assertThat(results).extracting(BulkResultDTO::getIndex).containsExactlyElementsOf(IntStream.range(0, 120).boxed().toList());
+        // Three chunks of at most 50 rows: an ISBN lookup, an author lookup, one batched insert statement for the books and
+        // one for their change events, and one author version bump each
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(15);
+        assertThat(bookRepository.count()).isEqualTo(121);
+    }
+}
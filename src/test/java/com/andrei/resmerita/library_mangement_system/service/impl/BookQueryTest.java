@@ -0,0 +1,149 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.BookFilterDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidPageTokenException;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidSortException;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookServiceImpl.class, BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class BookQueryTest {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    private Author verne;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        verne = testEntityManager.persist(Utils.createAuthor("Jules Verne", "French novelist"));
+        Author wells = testEntityManager.persist(Utils.createAuthor("H. G. Wells", "English writer"));
+        persist("Twenty Thousand Leagues Under the Seas", "978-2-01", verne, 1);
+        persist("Around the World in Eighty Days", "978-2-02", verne, 2);
+        persist("The Mysterious Island", "978-2-03", verne, 3);
+        persist("The Time Machine", "978-0-01", wells, 4);
+        persist("The War of the Worlds", "978-0-02", wells, 5);
+        persist("100% Fiction", "978-9-01", wells, 6);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void queryBooksShouldCombineFiltersInOneStatement() {
+        BookFilterDTO filter = new BookFilterDTO(verne.getId(), null, "The", null, null);
+
+        CursorPageDTO<BookSummaryDTO> page = bookService.queryBooks(filter, List.of("title"), null, 10);
+
+        assertThat(page.getContent()).extracting(BookSummaryDTO::getTitle).containsExactly("The Mysterious Island");
+        assertThat(page.getContent().get(0).getAuthorName()).isEqualTo("Jules Verne");
+        assertThat(page.getNextPageToken()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void queryBooksShouldFilterByAuthorNameIsbnPrefixAndCreationTime() {
+        assertThat(bookService.queryBooks(new BookFilterDTO(null, "H. G. Wells", null, null, null), List.of("title"), null, 10).getContent())
+                .extracting(BookSummaryDTO::getTitle).containsExactly("100% Fiction", "The Time Machine", "The War of the Worlds");
+        assertThat(bookService.queryBooks(new BookFilterDTO(null, null, null, "978-2", null), List.of("isbn"), null, 10).getContent())
+                .extracting(BookSummaryDTO::getIsbn).containsExactly("978-2-01", "978-2-02", "978-2-03");
+        assertThat(bookService.queryBooks(new BookFilterDTO(null, null, null, null, EPOCH.plusSeconds(4)), List.of("-createdAt"), null, 10).getContent())
+                .extracting(BookSummaryDTO::getTitle).containsExactly("100% Fiction", "The War of the Worlds");
+    }
+
+    @Test
+    void queryBooksShouldTreatLikeWildcardsInPrefixesLiterally() {
+        assertThat(bookService.queryBooks(new BookFilterDTO(null, null, "100%", null, null), List.of("id"), null, 10).getContent())
+                .extracting(BookSummaryDTO::getTitle).containsExactly("100% Fiction");
+        assertThat(bookService.queryBooks(new BookFilterDTO(null, null, "%", null, null), List.of("id"), null, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    void queryBooksShouldPageThroughMultiFieldSort() {
+        BookFilterDTO noFilter = new BookFilterDTO();
+        List<String> titles = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<BookSummaryDTO> page = bookService.queryBooks(noFilter, List.of("-isbn", "title"), pageToken, 4);
+            page.getContent().forEach(book -> titles.add(book.getIsbn()));
+            pageToken = page.getNextPageToken();
+            pages++;
+        } while (pageToken != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(titles).containsExactly("978-9-01", "978-2-03", "978-2-02", "978-2-01", "978-0-02", "978-0-01");
+    }
+
+    @Test
+    void queryBooksShouldContinueAfterTheLastBookWhenBooksAreAddedBetweenPages() {
+        CursorPageDTO<BookSummaryDTO> firstPage = bookService.queryBooks(new BookFilterDTO(), List.of("-createdAt"), null, 2);
+        // Sorts before the whole first page, so an offset would repeat its last book
+        persist("A Journey to the Centre of the Earth", "978-2-00", verne, 7);
+        testEntityManager.clear();
+
+        CursorPageDTO<BookSummaryDTO> secondPage = bookService.queryBooks(new BookFilterDTO(), List.of("-createdAt"), firstPage.getNextPageToken(), 2);
+
+        assertThat(firstPage.getContent()).extracting(BookSummaryDTO::getIsbn).containsExactly("978-9-01", "978-0-02");
+        assertThat(secondPage.getContent()).extracting(BookSummaryDTO::getIsbn).containsExactly("978-0-01", "978-2-03");
+    }
+
+    @Test
+    void queryBooksShouldRejectAPageTokenOfAnotherSort() {
+        String pageToken = bookService.queryBooks(new BookFilterDTO(), List.of("-createdAt"), null, 2).getNextPageToken();
+
+        assertThrows(InvalidPageTokenException.class, () -> bookService.queryBooks(new BookFilterDTO(), List.of("title"), pageToken, 2));
+        assertThrows(InvalidPageTokenException.class, () -> bookService.queryBooks(new BookFilterDTO(), List.of("-createdAt"), PageTokens.encode(PageTokens.encode("createdAt=yesterday") + "." + PageTokens.encode("id=1")), 2));
+    }
+
+    @Test
+    void queryBooksShouldRejectUnknownSortProperties() {
+        assertThrows(InvalidSortException.class, () -> bookService.queryBooks(new BookFilterDTO(), List.of("description"), null, 10));
+    }
+
+    private void persist(String title, String isbn, Author author, int secondsAfterEpoch) {
+        Book book = testEntityManager.persistAndFlush(Utils.createBook(title, "Description", isbn, author));
+        testEntityManager.getEntityManager().createQuery("update Book b set b.createdAt = :createdAt where b.id = :id")
+                .setParameter("createdAt", EPOCH.plusSeconds(secondsAfterEpoch))
+                .setParameter("id", book.getId())
+                .executeUpdate();
+    }
+}
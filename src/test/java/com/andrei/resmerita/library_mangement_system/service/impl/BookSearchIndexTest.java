@@ -0,0 +1,175 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex(mock(BookRepository.class), mock(EntityManager.class), mock(PlatformTransactionManager.class));
+        author = Utils.createAuthor("George R. R. Martin", "Fantasy author");
+        author.setId("author-1");
+        index("1", "A Game of Thrones", "The first book of the saga about the Seven Kingdoms.");
+        index("2", "A Clash of Kings", "The second book, where thrones are contested.");
+        index("3", "Fire & Blood", "A history of House Targaryen.");
+    }
+
+    @Test
+    void searchShouldRankTitleMatchesAboveDescriptionMatches() {
+        assertThat(bookSearchIndex.search("thrones", 0, 10)).extracting(BookSummaryDTO::getId).containsExactly("1", "2");
+    }
+
+    @Test
+    void searchShouldRequireEveryWord() {
+        assertThat(bookSearchIndex.search("second book", 0, 10)).extracting(BookSummaryDTO::getId).containsExactly("2");
+    }
+
+    @Test
+    void searchShouldMatchTheLastWordAsPrefix() {
+        assertThat(bookSearchIndex.search("house targ", 0, 10)).extracting(BookSummaryDTO::getId).containsExactly("3");
+        assertThat(bookSearchIndex.search("targ house", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void searchShouldMatchAuthorNamesIgnoringCaseAndAccents() {
+        author.setName("Géorge Mârtin");
+        index("4", "The Ice Dragon", "A children's story.");
+
+        assertThat(bookSearchIndex.search("GEORGE", 0, 10)).extracting(BookSummaryDTO::getId).containsExactlyInAnyOrder("1", "2", "3", "4");
+    }
+
+    @Test
+    void searchShouldSkipToTheRequestedOffset() {
+        assertThat(bookSearchIndex.search("martin", 0, 2)).hasSize(2);
+        assertThat(bookSearchIndex.search("martin", 2, 2)).hasSize(1);
+    }
+
+    @Test
+    void concurrentSearchesShouldNotShareScores() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // More searches at once than pooled accumulators, so some of them use temporary ones
+            List<Future<List<String>>> results = IntStream.range(0, threads * 50)
+                    .mapToObj(i -> executor.submit(() -> bookSearchIndex.search(i % 2 == 0 ? "thrones" : "targaryen", 0, 10).stream().map(BookSummaryDTO::getId).toList()))
+                    .toList();
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).containsExactly(i % 2 == 0 ? new String[]{"1", "2"} : new String[]{"3"});
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void searchShouldSizeItsResultsByTheMatchesRatherThanTheRequestedCount() {
+        assertThat(bookSearchIndex.search("martin", 0, Integer.MAX_VALUE)).hasSize(3);
+        assertThat(bookSearchIndex.search("martin", Integer.MAX_VALUE - 1, 2)).isEmpty();
+    }
+
+    @Test
+    void indexShouldReplacePreviousVersionOfABook() {
+        index("1", "A Song of Ice and Fire", "Omnibus edition.");
+
+        assertThat(bookSearchIndex.search("thrones", 0, 10)).extracting(BookSummaryDTO::getId).containsExactly("2");
+        assertThat(bookSearchIndex.search("omnibus", 0, 10)).extracting(BookSummaryDTO::getTitle).containsExactly("A Song of Ice and Fire");
+        assertThat(bookSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void removeShouldDropTheBookFromResults() {
+        bookSearchIndex.remove("2");
+
+        assertThat(bookSearchIndex.search("kings", 0, 10)).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void renameAuthorShouldReindexTheirBooks() {
+        bookSearchIndex.renameAuthor("author-1", "G. Martin");
+
+        assertThat(bookSearchIndex.search("george", 0, 10)).isEmpty();
+        assertThat(bookSearchIndex.search("martin", 0, 10)).hasSize(3).allSatisfy(book -> assertThat(book.getAuthorName()).isEqualTo("G. Martin"));
+    }
+
+    @Test
+    void changesInsideATransactionShouldOnlyBeVisibleAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookSearchIndex.remove("1");
+            assertThat(bookSearchIndex.search("game", 0, 10)).hasSize(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(bookSearchIndex.search("game", 0, 10)).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuildShouldApplyChangesCommittedWhileItRunsOnTopOfTheBooksItRead() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        bookSearchIndex = new BookSearchIndex(bookRepository, mock(EntityManager.class), mock(PlatformTransactionManager.class));
+        when(bookRepository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> {
+            // Both changes commit after the rebuild has read the books as they were before
+            bookSearchIndex.remove("1");
+            bookSearchIndex.index(book("2", "A Clash of Kings", "Revised edition."));
+            return Stream.of(book("1", "A Game of Thrones", "The first book."), book("2", "A Clash of Kings", "The second book."));
+        });
+
+        bookSearchIndex.rebuild();
+
+        assertThat(bookSearchIndex.search("thrones", 0, 10)).isEmpty();
+        assertThat(bookSearchIndex.search("revised", 0, 10)).extracting(BookSummaryDTO::getId).containsExactly("2");
+        assertThat(bookSearchIndex.search("second", 0, 10)).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void renameAuthorShouldLeaveOtherAuthorsBooksAlone() {
+        Author otherAuthor = Utils.createAuthor("Robin Hobb", "Fantasy author");
+        otherAuthor.setId("author-2");
+        Book book = Utils.createBook("Assassin's Apprentice", "The first Farseer book.", "isbn-4", otherAuthor);
+        book.setId("4");
+        bookSearchIndex.index(book);
+
+        bookSearchIndex.renameAuthor("author-1", "G. Martin");
+
+        assertThat(bookSearchIndex.search("hobb", 0, 10)).extracting(BookSummaryDTO::getAuthorName).containsExactly("Robin Hobb");
+        assertThat(bookSearchIndex.search("martin", 0, 10)).hasSize(3);
+    }
+
+    private void index(String id, String title, String description) {
+        bookSearchIndex.index(book(id, title, description));
+    }
+
+    private Book book(String id, String title, String description) {
+        Book book = Utils.createBook(title, description, "isbn-" + id, author);
+        book.setId(id);
+        return book;
+    }
+}
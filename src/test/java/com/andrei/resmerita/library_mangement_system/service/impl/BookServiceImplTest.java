@@ -2,14 +2,18 @@ package com.andrei.resmerita.library_mangement_system.service.impl;
 
 import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
 import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
-import com.andrei.resmerita.library_mangement_system.exception.BookAlreadyExistException;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.exception.InvalidPageTokenException;
 import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
 import com.andrei.resmerita.library_mangement_system.mapper.BookMapper;
 import com.andrei.resmerita.library_mangement_system.model.Author;
 import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
 import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
 import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
 import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,12 +22,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +44,15 @@ class BookServiceImplTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private ChangeLog changeLog;
+
     @Spy
     private BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
 
@@ -59,19 +76,23 @@ class BookServiceImplTest {
     void testSaveBookShouldReturnSavedBook() {
         when(authorRepository.findByName(authorDTO.getName())).thenReturn(Optional.of(author));
         when(bookMapper.toBook(bookDTO)).thenReturn(book);
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.saveAndFlush(book)).thenReturn(book);
 
         BookDTO savedBook = bookService.saveBook(bookDTO);
 
         assertThat(savedBook.getTitle()).isEqualTo(bookDTO.getTitle());
-        verify(bookRepository, times(1)).save(book);
+        verify(bookRepository, times(1)).saveAndFlush(book);
+        verify(bookSearchIndex, times(1)).index(book);
     }
 
     @Test
     void testSaveBookWithExistingIsbnShouldThrowException() {
-        when(bookRepository.findByIsbn(anyString())).thenReturn(Optional.of(new Book()));
+        when(authorRepository.findByName(authorDTO.getName())).thenReturn(Optional.of(author));
+        when(bookMapper.toBook(bookDTO)).thenReturn(book);
+        when(bookRepository.saveAndFlush(book)).thenThrow(new DataIntegrityViolationException("uk_book_isbn"));
 
-        assertThrows(BookAlreadyExistException.class, () -> bookService.saveBook(bookDTO));
+        assertThrows(DataIntegrityViolationException.class, () -> bookService.saveBook(bookDTO));
+        verify(bookRepository, never()).findByIsbn(anyString());
     }
 
     @Test
@@ -84,7 +105,7 @@ class BookServiceImplTest {
         when(authorRepository.findByName(authorDTO.getName())).thenReturn(Optional.of(author));
         when(bookRepository.save(book)).thenReturn(book);
 
-        BookDTO updatedBook = bookService.updateBook(bookId, bookDTO);
+        BookDTO updatedBook = bookService.updateBook(bookId, bookDTO, null);
 
         assertThat(updatedBook.getDescription()).isEqualTo(bookDTO.getDescription());
         verify(bookRepository, times(1)).save(book);
@@ -96,7 +117,7 @@ class BookServiceImplTest {
 
         when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> bookService.updateBook(bookId, bookDTO));
+        assertThrows(ResourceNotFoundException.class, () -> bookService.updateBook(bookId, bookDTO, null));
     }
 
     @Test
@@ -107,7 +128,7 @@ class BookServiceImplTest {
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(bookMapper.toBookDTO(book)).thenReturn(bookDTO);
 
-        BookDTO foundBook = bookService.getBookById(bookId);
+        BookDTO foundBook = bookService.getBookById(bookId).getContent();
 
         assertThat(foundBook.getTitle()).isEqualTo(book.getTitle());
         verify(bookRepository, times(1)).findById(bookId);
@@ -125,10 +146,16 @@ class BookServiceImplTest {
     @Test
     void testDeleteBookShouldDeleteBook() {
         String bookId = "1";
+        book.setId(bookId);
+        author.setId("author-1");
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
 
         bookService.deleteBook(bookId);
 
-        verify(bookRepository, times(1)).deleteById(bookId);
+        verify(bookRepository, times(1)).delete(book);
+        verify(authorRepository, times(1)).touch(eq(List.of("author-1")), any());
+        verify(changeLog, times(1)).record(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.DELETED, List.of(bookId));
+        verify(changeLog, times(1)).record(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED, List.of("author-1"));
     }
 
     @Test
@@ -137,13 +164,12 @@ class BookServiceImplTest {
         Book book2 = Utils.createBook("A Game of Thrones", "Epic saga", "9780553103540", author2);
 
         when(bookRepository.findAll()).thenReturn(List.of(book, book2));
-        when(bookMapper.toBookDTO(book)).thenReturn(bookDTO);
-        when(bookMapper.toBookDTO(book2)).thenReturn(Utils.createBookDTO("A Game of Thrones", "Epic saga", "9780553103540", Utils.createAuthorDTO(author2.getName(), author2.getBio())));
 
         List<BookDTO> bookDTOs = bookService.getAllBooks();
 
         assertThat(bookDTOs).hasSize(2).extracting(BookDTO::getTitle).contains("Galactic Chronicles", "A Game of Thrones");
         verify(bookRepository, times(1)).findAll();
+        verify(bookMapper, times(1)).toBookDTOs(eq(List.of(book, book2)), any());
     }
 
     @Test
@@ -160,10 +186,97 @@ class BookServiceImplTest {
     void testDeleteNonExistingBookShouldDoNothing() {
         String bookId = "1";
 
-        doNothing().when(bookRepository).deleteById(bookId);
+        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
 
         bookService.deleteBook(bookId);
 
-        verify(bookRepository, times(1)).deleteById(bookId);
+        verify(bookRepository, never()).delete(any(Book.class));
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void testGetBooksPageShouldReturnNextPageTokenWhenMoreBooksExist() {
+        Book book2 = Utils.createBook("A Game of Thrones", "Epic saga", "9780553103540", author);
+        Book book3 = Utils.createBook("A Clash of Kings", "Epic saga", "9780553108033", author);
+        book.setId("1");
+        book2.setId("2");
+        book3.setId("3");
+
+        when(bookRepository.findAllByOrderByIdAsc(any())).thenReturn(new ArrayList<>(List.of(book, book2, book3)));
+
+        CursorPageDTO<BookDTO> page = bookService.getBooksPage(null, 2);
+
+        assertThat(page.getContent()).hasSize(2).extracting(BookDTO::getTitle).containsExactly("Galactic Chronicles", "A Game of Thrones");
+        assertThat(page.getNextPageToken()).isNotNull();
+
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq("2"), any())).thenReturn(new ArrayList<>(List.of(book3)));
+
+        CursorPageDTO<BookDTO> nextPage = bookService.getBooksPage(page.getNextPageToken(), 2);
+
+        assertThat(nextPage.getContent()).hasSize(1).extracting(BookDTO::getTitle).containsExactly("A Clash of Kings");
+        assertThat(nextPage.getNextPageToken()).isNull();
+    }
+
+    @Test
+    void testGetBooksPageWithInvalidTokenShouldThrowException() {
+        assertThrows(InvalidPageTokenException.class, () -> bookService.getBooksPage("not a token!", 2));
+    }
+
+    @Test
+    void testStreamAllBooksShouldPassEveryBookToConsumerAndDetachIt() {
+        Book book2 = Utils.createBook("A Game of Thrones", "Epic saga", "9780553103540", author);
+
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(book, book2));
+
+        List<BookDTO> streamed = new ArrayList<>();
+        bookService.streamAllBooks(streamed::add);
+
+        assertThat(streamed).extracting(BookDTO::getTitle).containsExactly("Galactic Chronicles", "A Game of Thrones");
+        verify(entityManager, times(1)).detach(book);
+        verify(entityManager, times(1)).detach(book2);
+    }
+
+    @Test
+    void testSearchBooksShouldContinueAtTheNextOffset() {
+        BookSummaryDTO first = new BookSummaryDTO("1", "Galactic Chronicles", "1234567890", "a", "Andrei Resmerita");
+        BookSummaryDTO second = new BookSummaryDTO("2", "Galactic Empire", "1234567891", "a", "Andrei Resmerita");
+        BookSummaryDTO third = new BookSummaryDTO("3", "Galactic Dawn", "1234567892", "a", "Andrei Resmerita");
+        when(bookSearchIndex.search("galactic", 0, 3)).thenReturn(List.of(first, second, third));
+
+        CursorPageDTO<BookSummaryDTO> page = bookService.searchBooks("galactic", null, 2);
+
+        assertThat(page.getContent()).containsExactly(first, second);
+        assertThat(page.getNextPageToken()).isNotNull();
+
+        when(bookSearchIndex.search("galactic", 2, 3)).thenReturn(List.of(third));
+
+        CursorPageDTO<BookSummaryDTO> nextPage = bookService.searchBooks("galactic", page.getNextPageToken(), 2);
+
+        assertThat(nextPage.getContent()).containsExactly(third);
+        assertThat(nextPage.getNextPageToken()).isNull();
+    }
+
+    @Test
+    void testSearchBooksWithInvalidTokenShouldThrowException() {
+        assertThrows(InvalidPageTokenException.class, () -> bookService.searchBooks("galactic", PageTokens.encode("not-an-offset"), 2));
+    }
+
+    @Test
+    void testSearchBooksWithTokenBeyondTheMaximumOffsetShouldThrowException() {
+        assertThrows(InvalidPageTokenException.class, () -> bookService.searchBooks("galactic", PageTokens.encode("2147483640"), 2));
+        assertThrows(InvalidPageTokenException.class, () -> bookService.searchBooks("galactic", PageTokens.encode(String.valueOf(BookSearchIndex.MAX_OFFSET + 1)), 2));
+        verifyNoInteractions(bookSearchIndex);
+    }
+
+    @Test
+    void testSearchBooksShouldNotContinueBeyondTheMaximumOffset() {
+        BookSummaryDTO first = new BookSummaryDTO("1", "Galactic Chronicles", "1234567890", "a", "Andrei Resmerita");
+        BookSummaryDTO second = new BookSummaryDTO("2", "Galactic Empire", "1234567891", "a", "Andrei Resmerita");
+        when(bookSearchIndex.search("galactic", BookSearchIndex.MAX_OFFSET, 2)).thenReturn(List.of(first, second));
+
+        CursorPageDTO<BookSummaryDTO> page = bookService.searchBooks("galactic", PageTokens.encode(String.valueOf(BookSearchIndex.MAX_OFFSET)), 1);
+
+        assertThat(page.getContent()).containsExactly(first);
+        assertThat(page.getNextPageToken()).isNull();
     }
 }
@@ -0,0 +1,79 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Follows the tags of cached books through writes to the same author, against the real database and caches. Nothing is
+ * rolled back, so every test uses its own author.
+ */
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
+class CachedResourceVersionTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private AuthorDTO authorDTO;
+    private String suffix;
+    private String bookId;
+
+    @BeforeEach
+    void setUp() {
+        suffix = String.valueOf(System.nanoTime());
+        authorDTO = authorService.saveAuthor(Utils.createAuthorDTO("Author " + suffix, "Bio"));
+        bookId = saveBook("isbn-1-" + suffix);
+    }
+
+    @Test
+    void writesToOtherBooksOfTheAuthorShouldKeepTheTagOfABook() {
+        VersionDTO before = bookService.getBookById(bookId).getVersion();
+
+        String otherBookId = saveBook("isbn-2-" + suffix);
+        bookService.saveBooks(List.of(bookDTO("isbn-3-" + suffix, "Description")));
+        bookService.updateBook(otherBookId, bookDTO("isbn-2-" + suffix, "Updated description"), null);
+        bookService.deleteBook(otherBookId);
+
+        assertThat(bookService.getBookById(bookId).getVersion().getTag()).isEqualTo(before.getTag());
+        bookService.updateBook(bookId, bookDTO("isbn-1-" + suffix, "Updated description"), "\"" + before.getTag() + "\"");
+        assertThat(bookService.getBookById(bookId).getContent().getDescription()).isEqualTo("Updated description");
+    }
+
+    @Test
+    void updatingTheAuthorShouldChangeTheTagOfACachedBook() {
+        VersionDTO before = bookService.getBookById(bookId).getVersion();
+
+        authorService.updateAuthor(bookRepository.findByIsbn("isbn-1-" + suffix).orElseThrow().getAuthor().getId(), new AuthorDTO(authorDTO.getName(), "New bio", null, null), null);
+
+        VersionDTO after = bookService.getBookById(bookId).getVersion();
+        assertThat(after.getTag()).isNotEqualTo(before.getTag());
+        assertThat(bookService.getBookById(bookId).getContent().getAuthor().getBio()).isEqualTo("New bio");
+    }
+
+    private String saveBook(String isbn) {
+        bookService.saveBook(bookDTO(isbn, "Description"));
+        return bookRepository.findByIsbn(isbn).orElseThrow().getId();
+    }
+
+    private BookDTO bookDTO(String isbn, String description) {
+        return Utils.createBookDTO("Title", description, isbn, authorDTO);
+    }
+}
@@ -0,0 +1,280 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.ChangeEventDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ChangeOffsetExpiredException;
+import com.andrei.resmerita.library_mangement_system.model.ChangeEvent;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.repository.ChangeEventRepository;
+import com.andrei.resmerita.library_mangement_system.service.ChangeFeedService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the services without a surrounding test transaction so that every write commits or rolls back together with its
+ * change events, like it does in production. The relay is started with a long poll interval and driven by the tests.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "library.bulk.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookServiceImpl.class, AuthorServiceImpl.class, BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class ChangeFeedServiceImplTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private AuthorServiceImpl authorService;
+
+    private ChangeFeedServiceImpl changeFeed;
+    private RecordingListener listener;
+    private AuthorDTO authorDTO;
+    private String authorId;
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        // Unique per test, since nothing is rolled back
+        suffix = String.valueOf(System.nanoTime());
+        authorDTO = authorService.saveAuthor(Utils.createAuthorDTO("Author " + suffix, "Bio"));
+        authorId = authorRepository.findByName(authorDTO.getName()).orElseThrow().getId();
+        changeFeed = startChangeFeed(Duration.ofDays(7));
+        // Publishes everything written so far, so the tests only see their own changes
+        relayAll();
+        listener = new RecordingListener();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeed.stop();
+    }
+
+    @Test
+    void bookWritesShouldBeStreamedWithTheirAuthorInOffsetOrder() {
+        changeFeed.subscribe(null, listener);
+
+        String bookId = saveBook("isbn-" + suffix);
+        bookService.updateBook(bookId, bookDTO("isbn-" + suffix, "Updated description"), null);
+        bookService.deleteBook(bookId);
+        relayAll();
+
+        List<ChangeEventDTO> changes = listener.take(6);
+        assertThat(changes).extracting(ChangeEventDTO::getResourceType, ChangeEventDTO::getResourceId, ChangeEventDTO::getType).containsExactly(
+                tuple(ChangeEvent.ResourceType.BOOK, bookId, ChangeEvent.Type.CREATED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId, ChangeEvent.Type.UPDATED),
+                tuple(ChangeEvent.ResourceType.BOOK, bookId, ChangeEvent.Type.UPDATED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId, ChangeEvent.Type.UPDATED),
+                tuple(ChangeEvent.ResourceType.BOOK, bookId, ChangeEvent.Type.DELETED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId, ChangeEvent.Type.UPDATED));
+        assertThat(changes).extracting(ChangeEventDTO::getOffset).isSorted().doesNotHaveDuplicates();
+        assertThat(changes.get(5).getOffset() - changes.get(0).getOffset()).isEqualTo(5);
+        assertThat(listener.batchSizes).allMatch(size -> size <= BATCH_SIZE);
+    }
+
+    @Test
+    void authorUpdateShouldBeStreamedAsOneEventWhateverItsBooks() {
+        saveBook("isbn-1-" + suffix);
+        saveBook("isbn-2-" + suffix);
+        relayAll();
+        changeFeed.subscribe(null, listener);
+
+        // Mapping the updated author reads its books, which needs an open session
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> authorService.updateAuthor(authorId, new AuthorDTO(authorDTO.getName(), "New bio", null, null), null));
+        String bookId = saveBook("isbn-3-" + suffix);
+        relayAll();
+
+        // No book update is recorded between the author update and the next write
+        assertThat(listener.take(3)).extracting(ChangeEventDTO::getResourceType, ChangeEventDTO::getResourceId, ChangeEventDTO::getType).containsExactly(
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId, ChangeEvent.Type.UPDATED),
+                tuple(ChangeEvent.ResourceType.BOOK, bookId, ChangeEvent.Type.CREATED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId, ChangeEvent.Type.UPDATED));
+    }
+
+    @Test
+    void rolledBackWriteShouldRecordNoChange() {
+        changeFeed.subscribe(null, listener);
+
+        assertThrows(DataIntegrityViolationException.class, () -> authorService.saveAuthors(List.of(
+                Utils.createAuthorDTO("Other Author " + suffix, "Bio"),
+                Utils.createAuthorDTO(authorDTO.getName(), "Duplicate"))));
+        String bookId = saveBook("isbn-" + suffix);
+        relayAll();
+
+        assertThat(listener.take(2)).extracting(ChangeEventDTO::getResourceType, ChangeEventDTO::getResourceId).containsExactly(
+                tuple(ChangeEvent.ResourceType.BOOK, bookId),
+                tuple(ChangeEvent.ResourceType.AUTHOR, authorId));
+        assertThat(changeEventRepository.findByFeedOffsetIsNullOrderByIdAsc(Limit.unlimited())).isEmpty();
+    }
+
+    @Test
+    void bulkImportShouldRecordTheChangesOfEveryCommittedChunk() {
+        changeFeed.subscribe(null, listener);
+
+        bookService.saveBooks(List.of(bookDTO("isbn-1-" + suffix, "Description"), bookDTO("isbn-2-" + suffix, "Description"), bookDTO("isbn-3-" + suffix, "Description")));
+        relayAll();
+
+        // Chunks of two books, each with one update of the author
+        assertThat(listener.take(5)).extracting(ChangeEventDTO::getResourceType, ChangeEventDTO::getType).containsExactly(
+                tuple(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED),
+                tuple(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED),
+                tuple(ChangeEvent.ResourceType.BOOK, ChangeEvent.Type.CREATED),
+                tuple(ChangeEvent.ResourceType.AUTHOR, ChangeEvent.Type.UPDATED));
+    }
+
+    @Test
+    void subscriberShouldCatchUpFromAnOffsetAndThenFollowNewChanges() {
+        changeFeed.subscribe(null, listener);
+        saveBook("isbn-1-" + suffix);
+        saveBook("isbn-2-" + suffix);
+        relayAll();
+        List<ChangeEventDTO> published = listener.take(4);
+
+        RecordingListener resumed = new RecordingListener();
+        changeFeed.subscribe(published.get(0).getOffset(), resumed);
+        assertThat(resumed.take(3)).isEqualTo(published.subList(1, 4));
+
+        String bookId = saveBook("isbn-3-" + suffix);
+        relayAll();
+        assertThat(resumed.take(2)).extracting(ChangeEventDTO::getResourceId).containsExactly(bookId, authorId);
+    }
+
+    @Test
+    void subscribingBeforeTheRetainedChangesShouldFail() {
+        saveBook("isbn-" + suffix);
+        changeFeed.stop();
+        changeFeed = startChangeFeed(Duration.ZERO);
+        relayAll();
+        long lastOffset = changeEventRepository.findLastFeedOffset().orElseThrow();
+
+        changeFeed.removeExpired();
+
+        // The last published change is kept, so the feed can still be followed from its end
+        assertThrows(ChangeOffsetExpiredException.class, () -> changeFeed.subscribe(lastOffset - 2, listener));
+        assertThrows(ChangeOffsetExpiredException.class, () -> changeFeed.subscribe(-1L, listener));
+        changeFeed.subscribe(lastOffset - 1, listener);
+        assertThat(listener.take(1)).extracting(ChangeEventDTO::getOffset).containsExactly(lastOffset);
+    }
+
+    @Test
+    void relayShouldContinueAfterTheOffsetsAnotherInstancePublished() {
+        changeFeed.subscribe(null, listener);
+        ChangeFeedServiceImpl otherInstance = startChangeFeed(Duration.ofDays(7));
+        String firstBookId;
+        String secondBookId;
+        try {
+            firstBookId = saveBook("isbn-1-" + suffix);
+            while (otherInstance.relay() > 0) {
+                // Published by the other instance, past the offsets this relay knows about
+            }
+            secondBookId = saveBook("isbn-2-" + suffix);
+            relayAll();
+        } finally {
+            otherInstance.stop();
+        }
+
+        List<ChangeEventDTO> changes = listener.take(4);
+        assertThat(changes).extracting(ChangeEventDTO::getResourceId).containsExactly(firstBookId, authorId, secondBookId, authorId);
+        assertThat(changes.get(3).getOffset() - changes.get(0).getOffset()).isEqualTo(3);
+        assertThat(changeEventRepository.findByFeedOffsetIsNullOrderByIdAsc(Limit.unlimited())).isEmpty();
+    }
+
+    private ChangeFeedServiceImpl startChangeFeed(Duration retention) {
+        ChangeFeedServiceImpl changeFeedService = new ChangeFeedServiceImpl(changeEventRepository, transactionManager, new SimpleMeterRegistry(), BATCH_SIZE, Duration.ofHours(1), retention, 1, true);
+        changeFeedService.start();
+        return changeFeedService;
+    }
+
+    private void relayAll() {
+        while (changeFeed.relay() > 0) {
+            // Until the outbox is empty
+        }
+    }
+
+    private String saveBook(String isbn) {
+        bookService.saveBook(bookDTO(isbn, "Description"));
+        return bookRepository.findByIsbn(isbn).orElseThrow().getId();
+    }
+
+    private BookDTO bookDTO(String isbn, String description) {
+        return Utils.createBookDTO("Title", description, isbn, authorDTO);
+    }
+
+    private static final class RecordingListener implements ChangeFeedService.ChangeListener {
+
+        private final BlockingQueue<ChangeEventDTO> changes = new LinkedBlockingQueue<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onChanges(List<ChangeEventDTO> changes) {
+            batchSizes.add(changes.size());
+            this.changes.addAll(changes);
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            throw new AssertionError(exception);
+        }
+
+        private List<ChangeEventDTO> take(int count) {
+            List<ChangeEventDTO> taken = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    ChangeEventDTO change = changes.poll(5, TimeUnit.SECONDS);
+                    assertThat(change).as("change %d of %d", i + 1, count).isNotNull();
+                    taken.add(change);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(exception);
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDetailDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BatchDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookServiceImpl.class, AuthorServiceImpl.class, BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class ReadPathStatementCountTest {
+
+    private static final int AUTHORS = 5;
+    private static final int BOOKS_PER_AUTHOR = 3;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private AuthorServiceImpl authorService;
+
+    private Statistics statistics;
+    private Author firstAuthor;
+    private Book firstBook;
+    private Book lastBook;
+
+    @BeforeEach
+    void setUp() {
+        for (int a = 0; a < AUTHORS; a++) {
+            Author author = testEntityManager.persist(Utils.createAuthor("Author " + a, "Bio " + a));
+            for (int b = 0; b < BOOKS_PER_AUTHOR; b++) {
+                Book book = testEntityManager.persist(Utils.createBook("Title " + a + "-" + b, "Description", "isbn-" + a + "-" + b, author));
+                if (firstBook == null) {
+                    firstBook = book;
+                }
+                lastBook = book;
+            }
+            if (firstAuthor == null) {
+                firstAuthor = author;
+            }
+        }
+        // Start every read from an empty persistence context so that nothing is served from memory
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllBooksShouldRunASingleStatement() {
+        List<BookDTO> books = bookService.getAllBooks();
+
+        assertThat(books).hasSize(AUTHORS * BOOKS_PER_AUTHOR).allSatisfy(book -> assertThat(book.getAuthor().getName()).isNotEmpty());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getBookByIdShouldRunASingleStatement() {
+        BookDTO book = bookService.getBookById(firstBook.getId()).getContent();
+
+        assertThat(book.getAuthor().getName()).isEqualTo(firstAuthor.getName());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getBooksByIdsShouldRunASingleStatementAndKeepRequestOrder() {
+        List<String> ids = List.of(lastBook.getId(), "missing", firstBook.getId().toUpperCase(), lastBook.getId(), UUID.randomUUID().toString());
+
+        BatchDTO<BookDTO> books = bookService.getBooksByIds(ids);
+
+        assertThat(books.getContent()).extracting(BookDTO::getIsbn).containsExactly(lastBook.getIsbn(), firstBook.getIsbn());
+        assertThat(books.getContent().get(1).getAuthor().getName()).isEqualTo(firstAuthor.getName());
+        assertThat(books.getMissingIds()).containsExactly("missing", ids.get(4));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getBooksByIdsShouldQueryLongIdListsInChunks() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < BatchLookups.CHUNK_SIZE; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        ids.add(firstBook.getId());
+
+        BatchDTO<BookDTO> books = bookService.getBooksByIds(ids);
+
+        assertThat(books.getContent()).extracting(BookDTO::getIsbn).containsExactly(firstBook.getIsbn());
+        assertThat(books.getMissingIds()).hasSize(BatchLookups.CHUNK_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getAuthorsByIdsShouldCountBooksWithoutLoadingThem() {
+        BatchDTO<AuthorDTO> authors = authorService.getAuthorsByIds(List.of("missing", firstAuthor.getId()));
+
+        assertThat(authors.getContent()).singleElement().satisfies(author -> {
+            assertThat(author.getName()).isEqualTo(firstAuthor.getName());
+            assertThat(author.getBookCount()).isEqualTo(BOOKS_PER_AUTHOR);
+            assertThat(author.getBooks()).isNull();
+        });
+        assertThat(authors.getMissingIds()).containsExactly("missing");
+        // authors, grouped book counts
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void getAllAuthorsShouldCountBooksWithoutLoadingThem() {
+        List<AuthorDTO> authors = authorService.getAllAuthors(false);
+
+        assertThat(authors).hasSize(AUTHORS).allSatisfy(author -> {
+            assertThat(author.getBookCount()).isEqualTo(BOOKS_PER_AUTHOR);
+            assertThat(author.getBooks()).isNull();
+        });
+        // authors, grouped book counts
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void getAllAuthorsWithBooksShouldBatchFetchTheCollections() {
+        List<AuthorDTO> authors = authorService.getAllAuthors(true);
+
+        assertThat(authors).hasSize(AUTHORS).allSatisfy(author -> {
+            assertThat(author.getBooks()).hasSize(BOOKS_PER_AUTHOR);
+            assertThat(author.getBookCount()).isEqualTo(BOOKS_PER_AUTHOR);
+        });
+        // authors, then the books of all of them in one batch
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionFetchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getAuthorByIdShouldCountBooksWithoutLoadingThem() {
+        AuthorDTO author = authorService.getAuthorById(firstAuthor.getId(), false).getContent();
+
+        assertThat(author.getBookCount()).isEqualTo(BOOKS_PER_AUTHOR);
+        assertThat(author.getBooks()).isNull();
+        // author row, book count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getAuthorByIdWithBooksShouldRunASingleStatement() {
+        AuthorDTO author = authorService.getAuthorById(firstAuthor.getId(), true).getContent();
+
+        assertThat(author.getBooks()).hasSize(BOOKS_PER_AUTHOR);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getAuthorBooksShouldRunASingleStatementPerPage() {
+        CursorPageDTO<BookSummaryDTO> page = authorService.getAuthorBooks(firstAuthor.getId(), null, 2);
+        CursorPageDTO<BookSummaryDTO> lastPage = authorService.getAuthorBooks(firstAuthor.getId(), page.getNextPageToken(), 2);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(lastPage.getContent()).hasSize(1).allSatisfy(book -> assertThat(book.getAuthorName()).isEqualTo(firstAuthor.getName()));
+        assertThat(lastPage.getNextPageToken()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getAuthorDetailsShouldRunAConstantNumberOfStatements() {
+        AuthorDetailDTO author = authorService.getAuthorDetails(firstAuthor.getId(), null, 2);
+
+        assertThat(author.getBookCount()).isEqualTo(BOOKS_PER_AUTHOR);
+        assertThat(author.getBooks().getContent()).hasSize(2);
+        assertThat(author.getBooks().getNextPageToken()).isNotNull();
+        // author row, one page of books, book count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,145 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.exception.CoalescedLoadTimeoutException;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SlowReads target;
+    private SlowReads reads;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new SlowReads();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new RequestCoalescer(meterRegistry, Duration.ofMillis(500)));
+        reads = proxyFactory.getProxy();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsWithTheSameArgumentsShouldShareOneExecution() throws Exception {
+        List<Future<String>> results = callConcurrently("book-1");
+        target.release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded book-1");
+        }
+        assertThat(target.executions).hasValue(1);
+        assertThat(calls("leader")).isEqualTo(1);
+        assertThat(calls("collapsed")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void callsWithDifferentArgumentsShouldNotWaitForEachOther() {
+        target.release.countDown();
+
+        assertThat(reads.load("book-1")).isEqualTo("loaded book-1");
+        assertThat(reads.load("book-2")).isEqualTo("loaded book-2");
+        assertThat(target.executions).hasValue(2);
+        assertThat(calls("collapsed")).isZero();
+    }
+
+    @Test
+    void waitingCallersShouldGetTheExceptionOfTheSharedExecution() throws Exception {
+        List<Future<String>> results = callConcurrently("missing");
+        target.release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS))).hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(target.executions).hasValue(1);
+    }
+
+    @Test
+    void waitingCallersShouldGiveUpAfterTheTimeout() throws Exception {
+        List<Future<String>> results = callConcurrently("book-1");
+        // The read outlasts the 500 ms timeout of the waiting callers
+        Thread.sleep(1000);
+        target.release.countDown();
+
+        int loaded = 0;
+        int timedOut = 0;
+        for (Future<String> result : results) {
+            try {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded book-1");
+                loaded++;
+            } catch (ExecutionException exception) {
+                assertThat(exception).hasCauseInstanceOf(CoalescedLoadTimeoutException.class);
+                timedOut++;
+            }
+        }
+        assertThat(loaded).isEqualTo(1);
+        assertThat(timedOut).isEqualTo(CALLERS - 1);
+        assertThat(calls("timeout")).isEqualTo(CALLERS - 1);
+    }
+
+    // Starts the callers and returns once the leader is inside the read and everyone else had the time to join it
+    private List<Future<String>> callConcurrently(String id) throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> reads.load(id)));
+        }
+        assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        return results;
+    }
+
+    private double calls(String result) {
+        Counter counter = meterRegistry.find("library.coalescing.calls").tag("read", "test").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    static class SlowReads {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger executions = new AtomicInteger();
+
+        @Coalesced("test")
+        public String load(String id) {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            if (id.equals("missing")) {
+                throw new ResourceNotFoundException("Book not found");
+            }
+            return "loaded " + id;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.exception.PreconditionFailedException;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the services without a surrounding test transaction so that every call commits and bumps versions like it does
+ * in production.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({BookServiceImpl.class, AuthorServiceImpl.class, BookBulkImporter.class, BookSearchIndex.class, ChangeLog.class, MapStructConfig.class})
+class ResourceVersionTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private AuthorServiceImpl authorService;
+
+    private Author author;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        // Unique per test, since nothing is rolled back
+        String suffix = String.valueOf(System.nanoTime());
+        author = authorRepository.save(Utils.createAuthor("Author " + suffix, "Bio"));
+        book = bookRepository.save(Utils.createBook("Title", "Description", "isbn-" + suffix, author));
+    }
+
+    @Test
+    void updatingABookShouldChangeTheTagsOfTheBookAndItsAuthor() {
+        VersionDTO bookBefore = bookService.getBookById(book.getId()).getVersion();
+        VersionDTO authorBefore = authorService.getAuthorById(author.getId(), false).getVersion();
+
+        bookService.updateBook(book.getId(), bookDTO("Updated description"), "\"" + bookBefore.getTag() + "\"");
+
+        assertThat(bookService.getBookById(book.getId()).getVersion().getTag()).isNotEqualTo(bookBefore.getTag());
+        assertThat(authorService.getAuthorById(author.getId(), false).getVersion().getTag()).isNotEqualTo(authorBefore.getTag());
+    }
+
+    @Test
+    void updatingAnAuthorShouldChangeTheTagOfItsBooks() {
+        VersionDTO bookBefore = bookService.getBookById(book.getId()).getVersion();
+
+        // Mapping the updated author reads its books, which needs an open session
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> authorService.updateAuthor(author.getId(), new AuthorDTO(author.getName(), "New bio", null, null), null));
+
+        assertThat(bookService.getBookById(book.getId()).getVersion().getTag()).isNotEqualTo(bookBefore.getTag());
+    }
+
+    @Test
+    void updateWithAStaleIfMatchShouldBeRejected() {
+        String staleTag = "\"" + bookService.getBookById(book.getId()).getVersion().getTag() + "\"";
+        bookService.updateBook(book.getId(), bookDTO("First update"), staleTag);
+
+        assertThrows(PreconditionFailedException.class, () -> bookService.updateBook(book.getId(), bookDTO("Second update"), staleTag));
+        assertThat(bookService.getBookById(book.getId()).getContent().getDescription()).isEqualTo("First update");
+    }
+
+    @Test
+    void aBookShouldBeReadTogetherWithTheTagOfThatState() {
+        VersionedDTO<BookDTO> before = bookService.getBookById(book.getId());
+        bookService.updateBook(book.getId(), bookDTO("Updated description"), "\"" + before.getVersion().getTag() + "\"");
+
+        VersionedDTO<BookDTO> after = bookService.getBookById(book.getId());
+        assertThat(after.getContent().getDescription()).isEqualTo("Updated description");
+        assertThat(after.getVersion().getTag()).isNotEqualTo(before.getVersion().getTag());
+        // Served from the cache, still paired with the tag it was read with
+        assertThat(bookService.getBookById(book.getId()).getVersion()).isEqualTo(after.getVersion());
+    }
+
+    @Test
+    void ifMatchWithTheTagOfACborBodyShouldBeAccepted() {
+        String cborTag = "\"" + bookService.getBookById(book.getId()).getVersion().getTag() + "+cbor\"";
+
+        bookService.updateBook(book.getId(), bookDTO("Update"), cborTag);
+
+        assertThat(bookService.getBookById(book.getId()).getContent().getDescription()).isEqualTo("Update");
+    }
+
+    @Test
+    void weakIfMatchShouldBeRejected() {
+        String weakTag = "W/\"" + bookService.getBookById(book.getId()).getVersion().getTag() + "\"";
+
+        assertThrows(PreconditionFailedException.class, () -> bookService.updateBook(book.getId(), bookDTO("Update"), weakTag));
+    }
+
+    private BookDTO bookDTO(String description) {
+        return new BookDTO(book.getTitle(), description, book.getIsbn(), new AuthorDTO(author.getName(), author.getBio(), null, null));
+    }
+}
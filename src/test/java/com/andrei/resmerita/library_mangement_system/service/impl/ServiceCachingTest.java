@@ -0,0 +1,150 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.VersionedDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.repository.AuthorRepository;
+import com.andrei.resmerita.library_mangement_system.repository.BookRepository;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "library.changes.relay.enabled=false")
+class ServiceCachingTest {
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Author author;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        author = Utils.createAuthor("Andrei Resmerita", "Overlord");
+        author.setId("author-1");
+        book = Utils.createBook("Galactic Chronicles", "Epic saga", "1234567890", author);
+        book.setId("book-1");
+        when(bookRepository.findById("book-1")).thenReturn(Optional.of(book));
+        when(authorRepository.findById("author-1")).thenReturn(Optional.of(author));
+    }
+
+    @Test
+    void getBookByIdShouldBeServedFromCacheUntilTheBookIsUpdated() {
+        bookService.getBookById("book-1");
+        bookService.getBookById("book-1");
+        verify(bookRepository, times(1)).findById("book-1");
+
+        BookDTO update = Utils.createBookDTO("Galactic Chronicles", "Second edition", "1234567890", Utils.createAuthorDTO(author.getName(), author.getBio()));
+        when(authorRepository.findByName(author.getName())).thenReturn(Optional.of(author));
+        when(bookRepository.save(book)).thenReturn(book);
+        bookService.updateBook("book-1", update, null);
+
+        BookDTO reloaded = bookService.getBookById("book-1").getContent();
+        assertThat(reloaded.getDescription()).isEqualTo("Second edition");
+        verify(bookRepository, times(3)).findById("book-1");
+    }
+
+    @Test
+    void deleteBookShouldEvictTheBookAndCachedAuthors() {
+        bookService.getBookById("book-1");
+        authorService.getAuthorById("author-1", false);
+
+        bookService.deleteBook("book-1");
+
+        bookService.getBookById("book-1");
+        authorService.getAuthorById("author-1", false);
+        // Loaded by the two reads and by the delete itself, which needs the author of the book
+        verify(bookRepository, times(3)).findById("book-1");
+        verify(authorRepository, times(2)).findById("author-1");
+    }
+
+    @Test
+    void updateAuthorShouldEvictTheAuthorAndCachedBooks() {
+        authorService.getAuthorById("author-1", false);
+        bookService.getBookById("book-1");
+
+        when(authorRepository.save(author)).thenReturn(author);
+        AuthorDTO authorDTO = authorService.updateAuthor("author-1", Utils.createAuthorDTO("Andrei R.", "Overlord"), null);
+
+        assertThat(authorService.getAuthorById("author-1", false).getContent().getName()).isEqualTo(authorDTO.getName());
+        bookService.getBookById("book-1");
+        // Loaded by the two reads and by the update itself
+        verify(authorRepository, times(3)).findById("author-1");
+        verify(bookRepository, times(2)).findById("book-1");
+    }
+
+    @Test
+    void getAuthorByIdShouldOnlyCacheTheAuthorWithoutBooks() {
+        when(authorRepository.findWithBooksById("author-1")).thenReturn(Optional.of(author));
+
+        authorService.getAuthorById("author-1", false);
+        authorService.getAuthorById("author-1", false);
+        authorService.getAuthorById("author-1", true);
+        authorService.getAuthorById("author-1", true);
+
+        verify(authorRepository, times(1)).findById("author-1");
+        verify(authorRepository, times(2)).findWithBooksById("author-1");
+    }
+
+    @Test
+    void concurrentMissesForTheSameBookShouldRunOneQuery() throws Exception {
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookRepository.findById("book-1")).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(book);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<VersionedDTO<BookDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> bookService.getBookById("book-1")));
+            }
+            assertThat(queried.await(5, TimeUnit.SECONDS)).isTrue();
+            // Let the other callers reach the in-flight read before it completes
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<VersionedDTO<BookDTO>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getContent().getIsbn()).isEqualTo(book.getIsbn());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(bookRepository, times(1)).findById("book-1");
+    }
+}
@@ -0,0 +1,110 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.config.MapStructConfig;
+import com.andrei.resmerita.library_mangement_system.dto.AuthorStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookSummaryDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CatalogStatsDTO;
+import com.andrei.resmerita.library_mangement_system.dto.CursorPageDTO;
+import com.andrei.resmerita.library_mangement_system.model.Author;
+import com.andrei.resmerita.library_mangement_system.model.Book;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({StatsServiceImpl.class, MapStructConfig.class})
+class StatsServiceImplTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StatsServiceImpl statsService;
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final List<Author> authors = new ArrayList<>();
+    private final List<Book> books = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Author i wrote i books, the last author none
+        for (int a = 3; a >= 0; a--) {
+            Author author = testEntityManager.persist(Utils.createAuthor("Author " + a, "Bio " + a));
+            authors.add(author);
+            for (int b = 0; b < a; b++) {
+                books.add(testEntityManager.persist(Utils.createBook("Title " + a + "-" + b, "Description", "isbn-" + a + "-" + b, author)));
+            }
+        }
+        testEntityManager.flush();
+        // Creation times run against the insertion order
+        for (int i = 0; i < books.size(); i++) {
+            testEntityManager.getEntityManager().createQuery("update Book b set b.createdAt = :createdAt where b.id = :id")
+                    .setParameter("createdAt", EPOCH.plusSeconds(books.size() - i))
+                    .setParameter("id", books.get(i).getId())
+                    .executeUpdate();
+        }
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getCatalogStatsShouldCountInTheDatabase() {
+        CatalogStatsDTO stats = statsService.getCatalogStats(2, 2);
+
+        assertThat(stats.getTotalBooks()).isEqualTo(6);
+        assertThat(stats.getTotalAuthors()).isEqualTo(4);
+        assertThat(stats.getTopAuthors()).extracting(AuthorStatsDTO::getAuthorName, AuthorStatsDTO::getBookCount)
+                .containsExactly(tuple("Author 3", 3L), tuple("Author 2", 2L));
+        assertThat(stats.getRecentBooks()).extracting(BookSummaryDTO::getId)
+                .containsExactly(books.get(0).getId(), books.get(1).getId());
+        assertThat(stats.getRecentBooks().get(0).getAuthorName()).isEqualTo("Author 3");
+        // two counts, the grouped top authors and the newest books with their authors
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void getBooksPerAuthorShouldPageThroughAllAuthorsIncludingThoseWithoutBooks() {
+        CursorPageDTO<AuthorStatsDTO> firstPage = statsService.getBooksPerAuthor(null, 3);
+        CursorPageDTO<AuthorStatsDTO> secondPage = statsService.getBooksPerAuthor(firstPage.getNextPageToken(), 3);
+
+        assertThat(firstPage.getContent()).hasSize(3).extracting(AuthorStatsDTO::getAuthorId).isSorted();
+        assertThat(firstPage.getNextPageToken()).isNotNull();
+        assertThat(secondPage.getContent()).hasSize(1);
+        assertThat(secondPage.getNextPageToken()).isNull();
+        assertThat(concat(firstPage.getContent(), secondPage.getContent())).extracting(AuthorStatsDTO::getAuthorName, AuthorStatsDTO::getBookCount)
+                .containsExactlyInAnyOrder(
+                        tuple("Author 0", 0L), tuple("Author 1", 1L),
+                        tuple("Author 2", 2L), tuple("Author 3", 3L));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private static List<AuthorStatsDTO> concat(List<AuthorStatsDTO> first, List<AuthorStatsDTO> second) {
+        List<AuthorStatsDTO> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
@@ -0,0 +1,189 @@
+package com.andrei.resmerita.library_mangement_system.service.impl;
+
+import com.andrei.resmerita.library_mangement_system.dto.AuthorDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BookDTO;
+import com.andrei.resmerita.library_mangement_system.dto.BulkResultDTO;
+import com.andrei.resmerita.library_mangement_system.dto.WriteOperationDTO;
+import com.andrei.resmerita.library_mangement_system.exception.ResourceNotFoundException;
+import com.andrei.resmerita.library_mangement_system.exception.WriteQueueFullException;
+import com.andrei.resmerita.library_mangement_system.service.AuthorService;
+import com.andrei.resmerita.library_mangement_system.service.BookService;
+import com.andrei.resmerita.library_mangement_system.util.Utils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindServiceImplTest {
+
+    private static final int CAPACITY = 4;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindServiceImpl writeBehindService;
+    private AuthorDTO authorDTO;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehindService = new WriteBehindServiceImpl(bookService, authorService, meterRegistry, CAPACITY, 100, 100, Duration.ofMinutes(1));
+        authorDTO = Utils.createAuthorDTO("Andrei Resmerita", "Overlord");
+    }
+
+    @Test
+    void submitShouldRejectWritesWhenQueueIsFull() {
+        // The writer is not started, so nothing leaves the queue
+        for (int i = 0; i < CAPACITY; i++) {
+            writeBehindService.submitBook(book(i));
+        }
+
+        assertThrows(WriteQueueFullException.class, () -> writeBehindService.submitBook(book(CAPACITY)));
+        assertThat(meterRegistry.get("library.write.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("library.write.queue.size").gauge().value()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void writerShouldCoalesceQueuedBooksIntoOneImport() {
+        when(bookService.saveBooks(anyList())).thenReturn(List.of(
+                new BulkResultDTO(0, "isbn-0", BulkResultDTO.Status.CREATED, "book-0", null),
+                new BulkResultDTO(1, "isbn-1", BulkResultDTO.Status.DUPLICATE, null, "A book with this ISBN already exists."),
+                new BulkResultDTO(2, "isbn-2", BulkResultDTO.Status.CREATED, "book-2", null)));
+        List<WriteOperationDTO> accepted = List.of(writeBehindService.submitBook(book(0)), writeBehindService.submitBook(book(1)), writeBehindService.submitBook(book(2)));
+        assertThat(accepted).extracting(WriteOperationDTO::getStatus).containsOnly(WriteOperationDTO.Status.PENDING);
+
+        // Stopping drains everything that was accepted
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        verify(bookService).saveBooks(List.of(book(0), book(1), book(2)));
+        assertThat(operation(accepted.get(0), WriteOperationDTO.Type.BOOK)).satisfies(operation -> {
+            assertThat(operation.getStatus()).isEqualTo(WriteOperationDTO.Status.COMPLETED);
+            assertThat(operation.getResourceId()).isEqualTo("book-0");
+            assertThat(operation.getCompletedAt()).isNotNull();
+        });
+        assertThat(operation(accepted.get(1), WriteOperationDTO.Type.BOOK)).satisfies(operation -> {
+            assertThat(operation.getStatus()).isEqualTo(WriteOperationDTO.Status.FAILED);
+            assertThat(operation.getMessage()).isEqualTo("A book with this ISBN already exists.");
+        });
+        assertThat(operation(accepted.get(2), WriteOperationDTO.Type.BOOK).getResourceId()).isEqualTo("book-2");
+    }
+
+    @Test
+    void writerShouldKeepQueueOrderBetweenAuthorsAndBooks() {
+        when(bookService.saveBooks(anyList())).thenReturn(List.of(new BulkResultDTO(0, "isbn-0", BulkResultDTO.Status.CREATED, "book-0", null)));
+        writeBehindService.submitAuthor(authorDTO);
+        writeBehindService.submitBook(book(0));
+
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        var inOrder = inOrder(authorService, bookService);
+        inOrder.verify(authorService).saveAuthors(List.of(authorDTO));
+        inOrder.verify(bookService).saveBooks(List.of(book(0)));
+    }
+
+    @Test
+    void writerShouldRetryAuthorsOneByOneWhenTheBatchFails() {
+        AuthorDTO duplicate = Utils.createAuthorDTO("Existing Author", "Bio");
+        when(authorService.saveAuthors(anyList())).thenThrow(new DataIntegrityViolationException("uk_author_name"));
+        when(authorService.saveAuthor(any(AuthorDTO.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == duplicate) {
+                throw new DataIntegrityViolationException("uk_author_name");
+            }
+            return invocation.getArgument(0);
+        });
+        WriteOperationDTO first = writeBehindService.submitAuthor(authorDTO);
+        WriteOperationDTO second = writeBehindService.submitAuthor(duplicate);
+
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        verify(authorService).saveAuthor(authorDTO);
+        assertThat(operation(first, WriteOperationDTO.Type.AUTHOR).getStatus()).isEqualTo(WriteOperationDTO.Status.COMPLETED);
+        assertThat(operation(second, WriteOperationDTO.Type.AUTHOR)).satisfies(operation -> {
+            assertThat(operation.getStatus()).isEqualTo(WriteOperationDTO.Status.FAILED);
+            assertThat(operation.getMessage()).isEqualTo("The request conflicts with existing data.");
+        });
+    }
+
+    @Test
+    void writerShouldRetryBooksOneByOneWhenTheImportFails() {
+        when(bookService.saveBooks(anyList())).thenAnswer(invocation -> {
+            List<BookDTO> books = invocation.getArgument(0);
+            if (books.size() > 1 || books.get(0).equals(book(1))) {
+                throw new DataIntegrityViolationException("uk_book_isbn");
+            }
+            return List.of(new BulkResultDTO(0, books.get(0).getIsbn(), BulkResultDTO.Status.CREATED, "book-" + books.get(0).getIsbn(), null));
+        });
+        List<WriteOperationDTO> accepted = List.of(writeBehindService.submitBook(book(0)), writeBehindService.submitBook(book(1)), writeBehindService.submitBook(book(2)));
+
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        verify(bookService).saveBooks(List.of(book(0)));
+        verify(bookService).saveBooks(List.of(book(2)));
+        assertThat(accepted).extracting(operation -> operation(operation, WriteOperationDTO.Type.BOOK).getStatus()).containsExactly(
+                WriteOperationDTO.Status.COMPLETED,
+                WriteOperationDTO.Status.FAILED,
+                WriteOperationDTO.Status.COMPLETED);
+        assertThat(operation(accepted.get(1), WriteOperationDTO.Type.BOOK).getMessage()).isEqualTo("The request conflicts with existing data.");
+    }
+
+    @Test
+    void writerShouldKeepTheStatusOfAuthorsWrittenBeforeTheBooksFail() {
+        when(bookService.saveBooks(anyList())).thenThrow(new IllegalStateException("Import failed"));
+        WriteOperationDTO author = writeBehindService.submitAuthor(authorDTO);
+        WriteOperationDTO book = writeBehindService.submitBook(book(0));
+
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        assertThat(operation(author, WriteOperationDTO.Type.AUTHOR).getStatus()).isEqualTo(WriteOperationDTO.Status.COMPLETED);
+        assertThat(operation(book, WriteOperationDTO.Type.BOOK)).satisfies(operation -> {
+            assertThat(operation.getStatus()).isEqualTo(WriteOperationDTO.Status.FAILED);
+            assertThat(operation.getMessage()).isEqualTo("Import failed");
+        });
+    }
+
+    @Test
+    void stopShouldNotFailWhenTheWriterWasNeverStarted() {
+        writeBehindService.stop();
+
+        assertThat(writeBehindService.isRunning()).isFalse();
+    }
+
+    @Test
+    void getOperationShouldOnlyFindOperationsOfTheRequestedType() {
+        WriteOperationDTO accepted = writeBehindService.submitBook(book(0));
+
+        assertThat(writeBehindService.getOperation(accepted.getId(), WriteOperationDTO.Type.BOOK)).isEqualTo(accepted);
+        assertThrows(ResourceNotFoundException.class, () -> writeBehindService.getOperation(accepted.getId(), WriteOperationDTO.Type.AUTHOR));
+        assertThrows(ResourceNotFoundException.class, () -> writeBehindService.getOperation("unknown", WriteOperationDTO.Type.BOOK));
+    }
+
+    private BookDTO book(int i) {
+        return Utils.createBookDTO("Title " + i, "Description", "isbn-" + i, authorDTO);
+    }
+
+    private WriteOperationDTO operation(WriteOperationDTO accepted, WriteOperationDTO.Type type) {
+        return writeBehindService.getOperation(accepted.getId(), type);
+    }
+}
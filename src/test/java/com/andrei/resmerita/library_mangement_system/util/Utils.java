@@ -11,7 +11,7 @@ import java.util.Set;
 public class Utils {
 
     public static AuthorDTO createAuthorDTO(String name, String bio, Set<BookDTO> books) {
-        return new AuthorDTO(name, bio, books);
+        return new AuthorDTO(name, bio, books, null);
     }
 
     public static AuthorDTO createAuthorDTO(String name, String bio) {